@@ -0,0 +1,222 @@
+package com.saasquatch.jsonschemainferrer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the inference hot paths. Run with {@code ./gradlew jmh}, which also reports the
+ * allocation rate with the GC profiler.
+ *
+ * @author sli
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonSchemaInferrerBenchmark {
+
+  private static final JsonNodeFactory jnf = JsonNodeFactory.instance;
+
+  @Param({"default", "kitchenSink"})
+  public String inferrerType;
+
+  private JsonSchemaInferrer inferrer;
+  private List<JsonNode> wideObjects;
+  private List<JsonNode> deeplyNested;
+  private List<JsonNode> largeArray;
+  private List<JsonNode> primitivesWithFormats;
+  private List<JsonNode> enumValues;
+
+  @Setup
+  public void setUp() {
+    switch (inferrerType) {
+      case "default":
+        inferrer = JsonSchemaInferrer.newBuilder().build();
+        break;
+      case "kitchenSink":
+        inferrer = newKitchenSinkInferrer();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown inferrerType: " + inferrerType);
+    }
+    // Fixed seed so every run sees the same samples
+    final Random random = new Random(0);
+    wideObjects = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      wideObjects.add(newWideObject(random, 2000));
+    }
+    deeplyNested = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      deeplyNested.add(newDeeplyNested(random, 50));
+    }
+    final ArrayNode arrayNode = jnf.arrayNode();
+    for (int i = 0; i < 10_000; i++) {
+      arrayNode.add(newItem(random, i));
+    }
+    largeArray = new ArrayList<>();
+    largeArray.add(arrayNode);
+    primitivesWithFormats = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      primitivesWithFormats.add(newPrimitiveWithFormat(random, i));
+    }
+    enumValues = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      enumValues.add(newEnumValue(random));
+    }
+  }
+
+  @Benchmark
+  public ObjectNode wideObject() {
+    return inferrer.inferForSamples(wideObjects);
+  }
+
+  @Benchmark
+  public ObjectNode deepNesting() {
+    return inferrer.inferForSamples(deeplyNested);
+  }
+
+  @Benchmark
+  public ObjectNode largeArray() {
+    return inferrer.inferForSamples(largeArray);
+  }
+
+  @Benchmark
+  public ObjectNode primitivesWithFormats() {
+    return inferrer.inferForSamples(primitivesWithFormats);
+  }
+
+  @Benchmark
+  public ObjectNode enumExtraction() {
+    return inferrer.inferForSamples(enumValues);
+  }
+
+  @Benchmark
+  public ObjectNode largeArrayAccumulator() {
+    final SchemaAccumulator accumulator = inferrer.newAccumulator();
+    for (JsonNode item : largeArray.get(0)) {
+      accumulator.add(item);
+    }
+    return accumulator.toSchema();
+  }
+
+  private static JsonSchemaInferrer newKitchenSinkInferrer() {
+    return JsonSchemaInferrer.newBuilder()
+        .setSpecVersion(SpecVersion.DRAFT_2020_12)
+        .addFormatInferrers(FormatInferrers.dateTime(), FormatInferrers.email(),
+            FormatInferrers.ip())
+        .setAdditionalPropertiesPolicy(AdditionalPropertiesPolicies.existingTypes())
+        .setRequiredPolicy(RequiredPolicies.nonNullCommonFields())
+        .setDefaultPolicy(DefaultPolicies.useFirstSamples())
+        .setExamplesPolicy(ExamplesPolicies.useFirstSamples(10))
+        .setMultipleOfPolicy(MultipleOfPolicies.gcd())
+        .setTitleDescriptionGenerator(TitleDescriptionGenerators.useFieldNamesAsTitles())
+        .addEnumExtractors(EnumExtractors.validEnum(Month.class),
+            EnumExtractors.validEnum(DayOfWeek.class))
+        .setObjectSizeFeatures(EnumSet.allOf(ObjectSizeFeature.class))
+        .setArrayLengthFeatures(EnumSet.allOf(ArrayLengthFeature.class))
+        .setStringLengthFeatures(EnumSet.allOf(StringLengthFeature.class))
+        .setNumberRangeFeatures(EnumSet.allOf(NumberRangeFeature.class))
+        .build();
+  }
+
+  private static ObjectNode newWideObject(Random random, int width) {
+    final ObjectNode objectNode = jnf.objectNode();
+    for (int i = 0; i < width; i++) {
+      final String fieldName = "field" + i;
+      switch (i % 4) {
+        case 0:
+          objectNode.put(fieldName, random.nextInt(1000));
+          break;
+        case 1:
+          objectNode.put(fieldName, random.nextDouble());
+          break;
+        case 2:
+          objectNode.put(fieldName, "value" + random.nextInt(100));
+          break;
+        default:
+          objectNode.put(fieldName, random.nextBoolean());
+          break;
+      }
+    }
+    return objectNode;
+  }
+
+  private static JsonNode newDeeplyNested(Random random, int depth) {
+    JsonNode result = jnf.numberNode(random.nextInt());
+    for (int i = 0; i < depth; i++) {
+      if (i % 2 == 0) {
+        final ObjectNode objectNode = jnf.objectNode();
+        objectNode.set("child", result);
+        objectNode.put("depth", i);
+        result = objectNode;
+      } else {
+        result = jnf.arrayNode().add(result).add("depth" + i);
+      }
+    }
+    return result;
+  }
+
+  private static ObjectNode newItem(Random random, int id) {
+    final ObjectNode item = jnf.objectNode();
+    item.put("id", id);
+    item.put("name", "item" + random.nextInt(1000));
+    item.put("price", random.nextInt(10_000) / 100.0);
+    if (random.nextBoolean()) {
+      item.putNull("description");
+    } else {
+      item.put("description", "description of item " + id);
+    }
+    final ArrayNode tags = item.putArray("tags");
+    for (int i = random.nextInt(5); i > 0; i--) {
+      tags.add("tag" + random.nextInt(20));
+    }
+    return item;
+  }
+
+  private static JsonNode newPrimitiveWithFormat(Random random, int i) {
+    switch (i % 6) {
+      case 0:
+        return jnf.textNode(Instant.ofEpochSecond(random.nextInt(Integer.MAX_VALUE)).toString());
+      case 1:
+        return jnf.textNode("user" + random.nextInt(1000) + "@example.com");
+      case 2:
+        return jnf.textNode(random.nextInt(256) + "." + random.nextInt(256) + "."
+            + random.nextInt(256) + "." + random.nextInt(256));
+      case 3:
+        return jnf.textNode("plain text " + random.nextInt());
+      case 4:
+        return jnf.numberNode(random.nextInt());
+      default:
+        return jnf.numberNode(random.nextDouble());
+    }
+  }
+
+  private static JsonNode newEnumValue(Random random) {
+    switch (random.nextInt(3)) {
+      case 0:
+        return jnf.textNode(DayOfWeek.values()[random.nextInt(7)].name());
+      case 1:
+        return jnf.textNode(Month.values()[random.nextInt(12)].name());
+      default:
+        return jnf.textNode("NOT_AN_ENUM_" + random.nextInt(10));
+    }
+  }
+
+}
@@ -4,6 +4,8 @@ import static com.saasquatch.jsonschemainferrer.JunkDrawer.newObject;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Collections;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -38,4 +40,9 @@ public interface AdditionalPropertiesPolicy extends GenericSchemaFeature {
     return result;
   }
 
+  @Override
+  default Set<String> getApplicableTypes() {
+    return Collections.singleton(Consts.Types.OBJECT);
+  }
+
 }
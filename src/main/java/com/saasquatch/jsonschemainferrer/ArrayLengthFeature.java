@@ -2,8 +2,9 @@ package com.saasquatch.jsonschemainferrer;
 
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.newObject;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Collections;
+import java.util.Set;
 import javax.annotation.Nonnull;
 
 /**
@@ -23,10 +24,7 @@ public enum ArrayLengthFeature implements GenericSchemaFeature {
         return null;
       }
       final ObjectNode result = newObject();
-      input.getSamples().stream()
-          .filter(JsonNode::isArray)
-          .mapToInt(JsonNode::size)
-          .min()
+      input.getSamplesSummary().getMinSize()
           .ifPresent(minItems -> result.put(Consts.Fields.MIN_ITEMS, minItems));
       return result;
     }
@@ -42,14 +40,16 @@ public enum ArrayLengthFeature implements GenericSchemaFeature {
         return null;
       }
       final ObjectNode result = newObject();
-      input.getSamples().stream()
-          .filter(JsonNode::isArray)
-          .mapToInt(JsonNode::size)
-          .max()
+      input.getSamplesSummary().getMaxSize()
           .ifPresent(maxItems -> result.put(Consts.Fields.MAX_ITEMS, maxItems));
       return result;
     }
   },
   ;
 
+  @Override
+  public Set<String> getApplicableTypes() {
+    return Collections.singleton(Consts.Types.ARRAY);
+  }
+
 }
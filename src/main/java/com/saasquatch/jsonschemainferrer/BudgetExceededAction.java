@@ -0,0 +1,30 @@
+package com.saasquatch.jsonschemainferrer;
+
+import com.saasquatch.jsonschemainferrer.annotations.Beta;
+
+/**
+ * What to do when an inference exceeds the budget set with
+ * {@link JsonSchemaInferrerBuilder#setTimeout(java.time.Duration)},
+ * {@link JsonSchemaInferrerBuilder#setMaxNodeVisits(long)} or
+ * {@link JsonSchemaInferrerBuilder#setMaxDepth(int)}.
+ *
+ * @author sli
+ * @see JsonSchemaInferrerBuilder#setBudgetExceededAction(BudgetExceededAction)
+ */
+@Beta
+public enum BudgetExceededAction {
+
+  /**
+   * Throw an {@link InferenceBudgetExceededException}
+   */
+  FAIL,
+
+  /**
+   * Return a best-effort partial schema, where the subtrees that are not inferred due to the budget
+   * are replaced by schemas that accept anything and carry a {@code $comment} naming the exceeded
+   * limit
+   */
+  TRUNCATE,
+  ;
+
+}
@@ -1,8 +1,5 @@
 package com.saasquatch.jsonschemainferrer;
 
-import java.time.LocalDate;
-import java.time.ZonedDateTime;
-import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import org.apache.commons.validator.routines.EmailValidator;
 import org.apache.commons.validator.routines.InetAddressValidator;
@@ -21,41 +18,41 @@ enum BuiltInFormatInferrer implements FormatInferrer {
     public String inferFormat(@Nonnull FormatInferrerInput input) {
       return null;
     }
+
+    @Override
+    public boolean meetsPreconditions(@Nonnull TextProfile textProfile) {
+      return false;
+    }
   },
 
   DATE_TIME {
-
-    private final Pattern timePattern = Pattern.compile(
-        "^(?:[01][0-9]|2[0-3]):[0-5][0-9]:[0-5][0-9](?:\\.\\d+)?(?:Z|[+-](?:0[0-9]|2[0-3]):[0-5][0-9])$");
-
     @Override
     public String inferFormat(@Nonnull FormatInferrerInput input) {
       final String textValue = input.getSample().textValue();
       if (textValue == null) {
         return null;
       }
-      try {
-        //noinspection ResultOfMethodCallIgnored
-        ZonedDateTime.parse(textValue);
+      if (DateTimeScanner.isDateTime(textValue)) {
         return Consts.Formats.DATE_TIME;
-      } catch (Exception e) {
-        // Ignore
       }
       if (input.getSpecVersion().compareTo(SpecVersion.DRAFT_07) >= 0) {
-        try {
-          //noinspection ResultOfMethodCallIgnored
-          LocalDate.parse(textValue);
+        if (DateTimeScanner.isDate(textValue)) {
           return Consts.Formats.DATE;
-        } catch (Exception e) {
-          // Ignore
         }
         // The time format is not the same as Java's LocalTime and OffsetTime
-        if (timePattern.matcher(textValue).matches()) {
+        if (DateTimeScanner.isTime(textValue)) {
           return Consts.Formats.TIME;
         }
       }
       return null;
     }
+
+    @Override
+    public boolean meetsPreconditions(@Nonnull TextProfile textProfile) {
+      // Dates have dashes and times have colons. The shortest is a time like 00:00:00Z.
+      return textProfile.getLength() >= 9 && textProfile.containsDigit()
+          && (textProfile.containsAscii('-') || textProfile.containsAscii(':'));
+    }
   },
 
   EMAIL {
@@ -70,6 +67,11 @@ enum BuiltInFormatInferrer implements FormatInferrer {
       }
       return null;
     }
+
+    @Override
+    public boolean meetsPreconditions(@Nonnull TextProfile textProfile) {
+      return textProfile.getLength() >= 3 && textProfile.containsAscii('@');
+    }
   },
 
   IP {
@@ -87,6 +89,12 @@ enum BuiltInFormatInferrer implements FormatInferrer {
       }
       return null;
     }
+
+    @Override
+    public boolean meetsPreconditions(@Nonnull TextProfile textProfile) {
+      // IPv4 addresses have dots and IPv6 addresses have colons
+      return textProfile.containsAscii('.') || textProfile.containsAscii(':');
+    }
   },
   ;
 
@@ -0,0 +1,32 @@
+package com.saasquatch.jsonschemainferrer;
+
+import com.saasquatch.jsonschemainferrer.annotations.Beta;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Token for cancelling inference cooperatively from another thread, e.g. when the request the
+ * schema is inferred for has been abandoned. Cancellation is checked before each JSON path is
+ * inferred, and the inference throws a {@link java.util.concurrent.CancellationException} once the
+ * token is cancelled.
+ *
+ * @author sli
+ * @see JsonSchemaInferrer#inferForSamples(java.util.Collection, CancellationToken)
+ */
+@Beta
+@ThreadSafe
+public final class CancellationToken {
+
+  private volatile boolean cancelled;
+
+  /**
+   * Cancel the inferences using this token. Cancelling a token more than once has no effect.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+}
@@ -2,7 +2,6 @@ package com.saasquatch.jsonschemainferrer;
 
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.unmodifiableSetOf;
 
-import java.util.Collections;
 import java.util.Set;
 
 /**
@@ -40,7 +39,6 @@ interface Consts {
     String MULTIPLE_OF = "multipleOf";
     String DOLLAR_COMMENT = "$comment";
     String ENUM = "enum";
-    Set<String> SINGLETON_TYPE = Collections.singleton(TYPE);
   }
 
   /**
@@ -57,6 +55,9 @@ interface Consts {
     String NULL = "null";
     Set<String> NUMBER_TYPES = unmodifiableSetOf(NUMBER, INTEGER);
     Set<String> CONTAINER_TYPES = unmodifiableSetOf(OBJECT, ARRAY);
+    Set<String> NON_CONTAINER_TYPES = unmodifiableSetOf(STRING, BOOLEAN, INTEGER, NUMBER, NULL);
+    Set<String> ALL_TYPES =
+        unmodifiableSetOf(OBJECT, ARRAY, STRING, BOOLEAN, INTEGER, NUMBER, NULL);
   }
 
   /**
@@ -72,9 +73,4 @@ interface Consts {
     String TIME = "time";
   }
 
-  interface JsonPath {
-
-    String ROOT = "$";
-  }
-
 }
@@ -0,0 +1,228 @@
+package com.saasquatch.jsonschemainferrer;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import javax.annotation.Nonnull;
+
+/**
+ * Hand written scanners for the {@code date-time}, {@code date} and {@code time} formats. The
+ * scanners reject strings on the first character that cannot start a valid value without
+ * allocating anything, and accept the common RFC 3339 shapes directly. Only the rare strings that
+ * look like dates but are not in the common shapes, e.g. years with signs or zone IDs, are handed
+ * to the {@code java.time} parsers, so the results are the same as parsing everything with
+ * {@code java.time}. Not public.
+ *
+ * @author sli
+ * @see BuiltInFormatInferrer#DATE_TIME
+ */
+final class DateTimeScanner {
+
+  private static final int REJECT = 0;
+  private static final int ACCEPT = 1;
+  // The string has to be parsed to know for sure
+  private static final int UNDECIDED = 2;
+
+  private DateTimeScanner() {}
+
+  /**
+   * @return Whether the given string can be parsed by {@link ZonedDateTime#parse(CharSequence)}
+   */
+  static boolean isDateTime(@Nonnull String s) {
+    switch (scanDateTime(s)) {
+      case ACCEPT:
+        return true;
+      case UNDECIDED:
+        try {
+          //noinspection ResultOfMethodCallIgnored
+          ZonedDateTime.parse(s);
+          return true;
+        } catch (Exception e) {
+          return false;
+        }
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return Whether the given string can be parsed by {@link LocalDate#parse(CharSequence)}
+   */
+  static boolean isDate(@Nonnull String s) {
+    switch (scanDate(s)) {
+      case ACCEPT:
+        return true;
+      case UNDECIDED:
+        try {
+          //noinspection ResultOfMethodCallIgnored
+          LocalDate.parse(s);
+          return true;
+        } catch (Exception e) {
+          return false;
+        }
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return Whether the given string is a JSON schema {@code time}, which is
+   * {@code HH:MM:SS[.fraction](Z|+HH:MM|-HH:MM)} where the offset hours are either {@code 0x} or
+   * {@code 2x}
+   */
+  static boolean isTime(@Nonnull String s) {
+    final int length = s.length();
+    if (length < 9 || !isTime(s, 0, 23) || s.charAt(2) != ':' || !isTime(s, 3, 59)
+        || s.charAt(5) != ':' || !isTime(s, 6, 59)) {
+      return false;
+    }
+    int i = 8;
+    if (s.charAt(i) == '.') {
+      final int fractionStart = ++i;
+      while (i < length && isDigit(s.charAt(i))) {
+        i++;
+      }
+      if (i == fractionStart) {
+        return false;
+      }
+    }
+    if (i == length - 1) {
+      return s.charAt(i) == 'Z';
+    }
+    if (i != length - 6) {
+      return false;
+    }
+    final char sign = s.charAt(i);
+    final char hourTens = s.charAt(i + 1);
+    return (sign == '+' || sign == '-')
+        && (hourTens == '0' && isDigit(s.charAt(i + 2))
+        || hourTens == '2' && s.charAt(i + 2) >= '0' && s.charAt(i + 2) <= '3')
+        && s.charAt(i + 3) == ':' && isTime(s, i + 4, 59);
+  }
+
+  private static int scanDateTime(@Nonnull String s) {
+    // The shortest is yyyy-MM-ddTHH:mmZ
+    if (s.length() < 17) {
+      return REJECT;
+    }
+    final int dateResult = scanDatePrefix(s);
+    if (dateResult != ACCEPT) {
+      return dateResult;
+    }
+    final char t = s.charAt(10);
+    if (t != 'T' && t != 't' || !isDigits(s, 11, 2) || s.charAt(13) != ':'
+        || !isDigits(s, 14, 2)) {
+      return REJECT;
+    }
+    if (t != 'T' || !isTime(s, 11, 23) || !isTime(s, 14, 59)) {
+      return UNDECIDED;
+    }
+    final int length = s.length();
+    int i = 16;
+    if (s.charAt(i) == ':') {
+      if (i + 3 > length || !isTime(s, i + 1, 59)) {
+        return UNDECIDED;
+      }
+      i += 3;
+      if (i < length && s.charAt(i) == '.') {
+        final int fractionStart = ++i;
+        while (i < length && isDigit(s.charAt(i))) {
+          i++;
+        }
+        final int fractionLength = i - fractionStart;
+        if (fractionLength < 1 || fractionLength > 9) {
+          return UNDECIDED;
+        }
+      }
+    }
+    if (i == length - 1 && s.charAt(i) == 'Z') {
+      return ACCEPT;
+    }
+    if (i == length - 6) {
+      final char sign = s.charAt(i);
+      // Offsets of 18 hours and beyond have extra rules
+      if ((sign == '+' || sign == '-') && isTime(s, i + 1, 17) && s.charAt(i + 3) == ':'
+          && isTime(s, i + 4, 59)) {
+        return ACCEPT;
+      }
+    }
+    return UNDECIDED;
+  }
+
+  private static int scanDate(@Nonnull String s) {
+    if (s.length() < 10) {
+      return REJECT;
+    }
+    final int dateResult = scanDatePrefix(s);
+    if (dateResult != ACCEPT) {
+      return dateResult;
+    }
+    return s.length() == 10 ? ACCEPT : REJECT;
+  }
+
+  /**
+   * Scan the {@code yyyy-MM-dd} at the start of the given string, which has at least 10 chars
+   */
+  private static int scanDatePrefix(@Nonnull String s) {
+    final char first = s.charAt(0);
+    if (first == '+' || first == '-') {
+      // Years with signs can have more than 4 digits
+      return UNDECIDED;
+    }
+    // Years without signs have exactly 4 digits
+    if (!isDigits(s, 0, 4) || s.charAt(4) != '-' || !isDigits(s, 5, 2) || s.charAt(7) != '-'
+        || !isDigits(s, 8, 2)) {
+      return REJECT;
+    }
+    final int year = parseDigits(s, 0, 4);
+    final int month = parseDigits(s, 5, 2);
+    final int day = parseDigits(s, 8, 2);
+    if (month < 1 || month > 12 || day < 1 || day > getMonthLength(year, month)) {
+      return REJECT;
+    }
+    return ACCEPT;
+  }
+
+  private static int getMonthLength(int year, int month) {
+    switch (month) {
+      case 2:
+        final boolean leapYear = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+        return leapYear ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  /**
+   * @return Whether the 2 chars at the given index are digits no greater than the given max
+   */
+  private static boolean isTime(@Nonnull String s, int index, int max) {
+    return isDigits(s, index, 2) && parseDigits(s, index, 2) <= max;
+  }
+
+  private static boolean isDigits(@Nonnull String s, int index, int count) {
+    for (int i = index; i < index + count; i++) {
+      if (!isDigit(s.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int parseDigits(@Nonnull String s, int index, int count) {
+    int result = 0;
+    for (int i = index; i < index + count; i++) {
+      result = result * 10 + s.charAt(i) - '0';
+    }
+    return result;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+}
@@ -1,8 +1,6 @@
 package com.saasquatch.jsonschemainferrer;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.saasquatch.jsonschemainferrer.annotations.Beta;
-import java.util.Collection;
 
 /**
  * Utilities for {@link DefaultPolicy}
@@ -24,10 +22,7 @@ public final class DefaultPolicies {
    * @return a singleton {@link DefaultPolicy} that always uses the first sample as {@code default}
    */
   public static DefaultPolicy useFirstSamples() {
-    return input -> {
-      final Collection<? extends JsonNode> samples = input.getSamples();
-      return samples.stream().findFirst().orElse(null);
-    };
+    return input -> input.getSamplesSummary().getFirstSample();
   }
 
   /**
@@ -35,10 +30,7 @@ public final class DefaultPolicies {
    */
   @Beta
   public static DefaultPolicy useLastSamples() {
-    return input -> {
-      final Collection<? extends JsonNode> samples = input.getSamples();
-      return samples.stream().skip(Math.max(0, samples.size() - 1)).findFirst().orElse(null);
-    };
+    return input -> input.getSamplesSummary().getLastSample();
   }
 
 }
@@ -4,6 +4,7 @@ import static com.saasquatch.jsonschemainferrer.JunkDrawer.newObject;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -35,4 +36,9 @@ public interface DefaultPolicy extends GenericSchemaFeature {
     return result;
   }
 
+  @Override
+  default Set<String> getApplicableTypes() {
+    return Consts.Types.NON_CONTAINER_TYPES;
+  }
+
 }
@@ -15,10 +15,10 @@ public final class EnumExtractorInput {
 
   private final Collection<? extends JsonNode> samples;
   private final SpecVersion specVersion;
-  private final String path;
+  private final JsonPath path;
 
   EnumExtractorInput(@Nonnull Collection<? extends JsonNode> samples,
-      @Nonnull SpecVersion specVersion, @Nonnull String path) {
+      @Nonnull SpecVersion specVersion, @Nonnull JsonPath path) {
     this.samples = samples;
     this.specVersion = specVersion;
     this.path = path;
@@ -49,7 +49,7 @@ public final class EnumExtractorInput {
   @Beta
   @Nonnull
   public String getPath() {
-    return path;
+    return path.toString();
   }
 
 }
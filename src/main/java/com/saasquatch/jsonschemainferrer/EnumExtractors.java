@@ -1,13 +1,10 @@
 package com.saasquatch.jsonschemainferrer;
 
-import static com.saasquatch.jsonschemainferrer.JunkDrawer.isValidEnum;
-
 import com.fasterxml.jackson.databind.JsonNode;
 import com.saasquatch.jsonschemainferrer.annotations.Beta;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Objects;
-import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 
@@ -33,13 +30,7 @@ public final class EnumExtractors {
    * names of a Java {@link Enum}.
    */
   public static <E extends Enum<E>> EnumExtractor validEnum(@Nonnull Class<E> enumClass) {
-    Objects.requireNonNull(enumClass);
-    return input -> {
-      final Set<? extends JsonNode> enumNodes = input.getSamples().stream()
-          .filter(j -> isValidEnum(enumClass, j.textValue()))
-          .collect(Collectors.toSet());
-      return enumNodes.isEmpty() ? Collections.emptySet() : Collections.singleton(enumNodes);
-    };
+    return new ValidEnumExtractor<>(enumClass);
   }
 
   /**
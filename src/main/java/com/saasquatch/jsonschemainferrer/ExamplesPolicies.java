@@ -1,8 +1,5 @@
 package com.saasquatch.jsonschemainferrer;
 
-import static com.saasquatch.jsonschemainferrer.JunkDrawer.newArray;
-
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.saasquatch.jsonschemainferrer.annotations.Beta;
 import java.util.Objects;
 import java.util.function.Predicate;
@@ -49,17 +46,7 @@ public final class ExamplesPolicies {
     if (limit == 0) {
       return noOp();
     }
-    return input -> {
-      if (input.getSpecVersion().compareTo(SpecVersion.DRAFT_06) < 0) {
-        return null;
-      }
-      if (!typePredicate.test(input.getType())) {
-        return null;
-      }
-      final ArrayNode result = newArray();
-      input.getSamples().stream().distinct().limit(limit).forEach(result::add);
-      return result.isEmpty() ? null : result;
-    };
+    return new FirstSamplesExamplesPolicy(limit, typePredicate);
   }
 
 }
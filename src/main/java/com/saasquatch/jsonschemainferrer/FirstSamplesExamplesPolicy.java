@@ -0,0 +1,46 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.newArray;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * {@link ExamplesPolicy} that takes the first distinct samples with a limit. Not public. Exists as
+ * a class so the limit is known when samples are summarized instead of retained.
+ *
+ * @author sli
+ * @see ExamplesPolicies#useFirstSamples(int, Predicate)
+ */
+@Immutable
+final class FirstSamplesExamplesPolicy implements ExamplesPolicy {
+
+  private final int limit;
+  private final Predicate<String> typePredicate;
+
+  FirstSamplesExamplesPolicy(int limit, @Nonnull Predicate<String> typePredicate) {
+    this.limit = limit;
+    this.typePredicate = typePredicate;
+  }
+
+  int getLimit() {
+    return limit;
+  }
+
+  @Override
+  public JsonNode getExamples(@Nonnull GenericSchemaFeatureInput input) {
+    if (input.getSpecVersion().compareTo(SpecVersion.DRAFT_06) < 0) {
+      return null;
+    }
+    if (!typePredicate.test(input.getType())) {
+      return null;
+    }
+    final ArrayNode result = newArray();
+    input.getSamplesSummary().getFirstDistinctSamples(limit).forEach(result::add);
+    return result.isEmpty() ? null : result;
+  }
+
+}
@@ -0,0 +1,92 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.entryOf;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Bounded cache of {@link FormatInferrer} results keyed by JSON paths and text values. The cache is
+ * split into segments, each of which is a synchronized LRU map, so concurrent inference does not
+ * contend on a single lock. Not public.
+ *
+ * @author sli
+ * @see JsonSchemaInferrerBuilder#setFormatCacheSize(int)
+ */
+@ThreadSafe
+final class FormatCache {
+
+  private static final int MAX_SEGMENTS = 16;
+  // Marker for cached null results, compared by identity
+  @SuppressWarnings("StringOperationCanBeSimplified")
+  private static final String NO_FORMAT = new String("");
+
+  private final Segment[] segments;
+
+  FormatCache(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Invalid maxSize");
+    }
+    // The number of segments is a power of 2 that is no greater than the max size
+    final int segmentCount = Integer.highestOneBit(Math.min(maxSize, MAX_SEGMENTS));
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      // Spread the remainder over the first segments
+      final int segmentMaxSize = maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0);
+      segments[i] = new Segment(segmentMaxSize);
+    }
+  }
+
+  /**
+   * Get the cached format for the given path and text value, or compute and cache it with the given
+   * {@link Supplier} if it is not cached. The {@link Supplier} is called without holding any locks.
+   */
+  @Nullable
+  String get(@Nonnull JsonPath path, @Nonnull String textValue,
+      @Nonnull Supplier<String> formatSupplier) {
+    final Map.Entry<String, String> key = entryOf(path.toString(), textValue);
+    final Segment segment = getSegment(key);
+    String format;
+    synchronized (segment) {
+      format = segment.get(key);
+    }
+    if (format == null) {
+      format = formatSupplier.get();
+      synchronized (segment) {
+        segment.put(key, format == null ? NO_FORMAT : format);
+      }
+      return format;
+    }
+    //noinspection StringEquality
+    return format == NO_FORMAT ? null : format;
+  }
+
+  @Nonnull
+  private Segment getSegment(@Nonnull Object key) {
+    final int h = key.hashCode();
+    return segments[(h ^ h >>> 16) & segments.length - 1];
+  }
+
+  private static final class Segment extends LinkedHashMap<Map.Entry<String, String>, String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxSize;
+
+    Segment(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Map.Entry<String, String>, String> eldest) {
+      return size() > maxSize;
+    }
+
+  }
+
+}
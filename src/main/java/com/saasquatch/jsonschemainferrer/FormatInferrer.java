@@ -1,5 +1,6 @@
 package com.saasquatch.jsonschemainferrer;
 
+import com.saasquatch.jsonschemainferrer.annotations.Beta;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -22,4 +23,29 @@ public interface FormatInferrer {
   @Nullable
   String inferFormat(@Nonnull FormatInferrerInput input);
 
+  /**
+   * Cheap check of whether a textual sample can possibly have a format inferred by this
+   * {@link FormatInferrer}. {@link #inferFormat(FormatInferrerInput)} is skipped for textual
+   * samples that do not meet the preconditions. Non-textual samples are not checked.
+   *
+   * @param textProfile The profile of the characters in the textual sample
+   * @return false only if {@link #inferFormat(FormatInferrerInput)} would return null for the
+   * sample
+   */
+  @Beta
+  default boolean meetsPreconditions(@Nonnull TextProfile textProfile) {
+    return true;
+  }
+
+  /**
+   * Whether the results of this {@link FormatInferrer} can be cached by JSON path and text value
+   * when a format cache is enabled with {@link JsonSchemaInferrerBuilder#setFormatCacheSize(int)}.
+   * Implementations that are non-deterministic or depend on anything other than the path, the
+   * text value and the spec version should return false.
+   */
+  @Beta
+  default boolean isCacheable() {
+    return true;
+  }
+
 }
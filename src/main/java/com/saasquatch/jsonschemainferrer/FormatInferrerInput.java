@@ -13,10 +13,12 @@ public final class FormatInferrerInput {
 
   private final JsonNode sample;
   private final SpecVersion specVersion;
-  private final String path;
+  private final JsonPath path;
+  // Lazily computed for textual samples
+  private TextProfile textProfile;
 
   FormatInferrerInput(@Nonnull JsonNode sample, @Nonnull SpecVersion specVersion,
-      @Nonnull String path) {
+      @Nonnull JsonPath path) {
     this.sample = sample;
     this.specVersion = specVersion;
     this.path = path;
@@ -44,7 +46,22 @@ public final class FormatInferrerInput {
   @Beta
   @Nonnull
   public String getPath() {
-    return path;
+    return path.toString();
+  }
+
+  /**
+   * @return Whether the sample meets the preconditions of the given {@link FormatInferrer}.
+   * Non-textual samples always meet the preconditions.
+   */
+  boolean meetsPreconditionsOf(@Nonnull FormatInferrer formatInferrer) {
+    final String textValue = sample.textValue();
+    if (textValue == null) {
+      return true;
+    }
+    if (textProfile == null) {
+      textProfile = TextProfile.of(textValue);
+    }
+    return formatInferrer.meetsPreconditions(textProfile);
   }
 
 }
@@ -1,5 +1,6 @@
 package com.saasquatch.jsonschemainferrer;
 
+import java.util.Arrays;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 
@@ -61,14 +62,26 @@ public final class FormatInferrers {
       default:
         break;
     }
-    return input -> {
-      for (FormatInferrer formatInferrer : formatInferrers) {
-        final String result = formatInferrer.inferFormat(input);
-        if (result != null) {
-          return result;
+    final boolean cacheable = Arrays.stream(formatInferrers).allMatch(FormatInferrer::isCacheable);
+    return new FormatInferrer() {
+      @Override
+      public String inferFormat(@Nonnull FormatInferrerInput input) {
+        for (FormatInferrer formatInferrer : formatInferrers) {
+          if (!input.meetsPreconditionsOf(formatInferrer)) {
+            continue;
+          }
+          final String result = formatInferrer.inferFormat(input);
+          if (result != null) {
+            return result;
+          }
         }
+        return null;
+      }
+
+      @Override
+      public boolean isCacheable() {
+        return cacheable;
       }
-      return null;
     };
   }
 
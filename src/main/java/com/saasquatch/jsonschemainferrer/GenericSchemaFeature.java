@@ -1,6 +1,8 @@
 package com.saasquatch.jsonschemainferrer;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.saasquatch.jsonschemainferrer.annotations.Beta;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -18,4 +20,17 @@ public interface GenericSchemaFeature {
   @Nullable
   ObjectNode getFeatureResult(@Nonnull GenericSchemaFeatureInput input);
 
+  /**
+   * Declare the schema types (e.g. {@code "string"} and {@code "integer"}) this feature can produce
+   * results for. {@link JsonSchemaInferrer} will not call {@link #getFeatureResult} for schemas of
+   * other types or schemas without a type.
+   *
+   * @return The applicable types, or null if this feature is applicable to all schemas
+   */
+  @Beta
+  @Nullable
+  default Set<String> getApplicableTypes() {
+    return null;
+  }
+
 }
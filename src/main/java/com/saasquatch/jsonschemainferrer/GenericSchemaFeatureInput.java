@@ -18,13 +18,21 @@ public final class GenericSchemaFeatureInput {
   private final Collection<? extends JsonNode> samples;
   private final String type;
   private final SpecVersion specVersion;
-  private final String path;
+  private final JsonPath path;
+  private SamplesSummary samplesSummary;
 
   GenericSchemaFeatureInput(@Nonnull ObjectNode schema,
       @Nonnull Collection<? extends JsonNode> samples, @Nullable String type,
-      @Nonnull SpecVersion specVersion, @Nonnull String path) {
+      @Nonnull SpecVersion specVersion, @Nonnull JsonPath path) {
+    this(schema, samples, null, type, specVersion, path);
+  }
+
+  GenericSchemaFeatureInput(@Nonnull ObjectNode schema,
+      @Nonnull Collection<? extends JsonNode> samples, @Nullable SamplesSummary samplesSummary,
+      @Nullable String type, @Nonnull SpecVersion specVersion, @Nonnull JsonPath path) {
     this.schema = schema;
     this.samples = samples;
+    this.samplesSummary = samplesSummary;
     this.type = type;
     this.specVersion = specVersion;
     this.path = path;
@@ -47,6 +55,19 @@ public final class GenericSchemaFeatureInput {
     return samples;
   }
 
+  /**
+   * @return The summary of the current samples. Built-in features should only rely on this and not
+   * {@link #getSamples()}, since the samples are not retained by {@link SchemaAccumulator}s. Not
+   * public.
+   */
+  @Nonnull
+  SamplesSummary getSamplesSummary() {
+    if (samplesSummary == null) {
+      samplesSummary = SamplesSummary.of(samples);
+    }
+    return samplesSummary;
+  }
+
   /**
    * @return The current type, if available
    */
@@ -72,7 +93,7 @@ public final class GenericSchemaFeatureInput {
   @Nonnull
   @Beta
   public String getPath() {
-    return path;
+    return path.toString();
   }
 
 }
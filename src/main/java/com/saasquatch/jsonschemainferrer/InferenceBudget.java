@@ -0,0 +1,105 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.format;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The limits of a single inference. Not public.
+ *
+ * @author sli
+ * @see JsonSchemaInferrerBuilder#setTimeout(java.time.Duration)
+ * @see JsonSchemaInferrerBuilder#setMaxNodeVisits(long)
+ * @see JsonSchemaInferrerBuilder#setMaxDepth(int)
+ */
+@Immutable
+final class InferenceBudget {
+
+  // 0 for no limits
+  private final long timeoutNanos;
+  private final long maxNodeVisits;
+  private final int maxDepth;
+  private final BudgetExceededAction budgetExceededAction;
+
+  InferenceBudget(@Nonnegative long timeoutNanos, @Nonnegative long maxNodeVisits,
+      @Nonnegative int maxDepth, @Nonnull BudgetExceededAction budgetExceededAction) {
+    this.timeoutNanos = timeoutNanos;
+    this.maxNodeVisits = maxNodeVisits;
+    this.maxDepth = maxDepth;
+    this.budgetExceededAction = budgetExceededAction;
+  }
+
+  /**
+   * @return A new {@link Tracker} for an inference starting now, or null if neither a budget nor a
+   * {@link CancellationToken} is given
+   */
+  @Nullable
+  static Tracker newTracker(@Nullable InferenceBudget budget,
+      @Nullable CancellationToken cancellationToken) {
+    if (budget == null && cancellationToken == null) {
+      return null;
+    }
+    return new Tracker(budget == null ? new InferenceBudget(0, 0, 0, BudgetExceededAction.FAIL)
+        : budget, cancellationToken);
+  }
+
+  /**
+   * The state of the budget of a single inference, which is shared by all the threads working on
+   * the inference
+   */
+  @ThreadSafe
+  static final class Tracker {
+
+    private final InferenceBudget budget;
+    private final CancellationToken cancellationToken;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong nodeVisits = new AtomicLong();
+
+    private Tracker(@Nonnull InferenceBudget budget,
+        @Nullable CancellationToken cancellationToken) {
+      this.budget = budget;
+      this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * Check the budget before inferring the given number of samples at the given path.
+     *
+     * @return The name of the exceeded limit if the path should be truncated, or null if the path
+     * is within the budget
+     * @throws CancellationException if the inference is cancelled
+     * @throws InferenceBudgetExceededException if the budget is exceeded and the inference should
+     *                                          fail
+     */
+    @Nullable
+    String check(@Nonnull JsonPath path, @Nonnegative int sampleCount) {
+      if (cancellationToken != null && cancellationToken.isCancelled()) {
+        throw new CancellationException("Inference cancelled");
+      }
+      final String exceededLimit;
+      if (budget.maxDepth > 0 && path.getDepth() > budget.maxDepth) {
+        exceededLimit = "maxDepth";
+      } else if (budget.maxNodeVisits > 0
+          && nodeVisits.addAndGet(sampleCount) > budget.maxNodeVisits) {
+        exceededLimit = "maxNodeVisits";
+      } else if (budget.timeoutNanos > 0
+          && System.nanoTime() - startNanos > budget.timeoutNanos) {
+        exceededLimit = "timeout";
+      } else {
+        return null;
+      }
+      if (budget.budgetExceededAction == BudgetExceededAction.FAIL) {
+        throw new InferenceBudgetExceededException(
+            format("Inference budget exceeded at path[%s]: %s", path, exceededLimit));
+      }
+      return exceededLimit;
+    }
+
+  }
+
+}
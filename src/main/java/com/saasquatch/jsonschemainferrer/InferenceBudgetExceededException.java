@@ -0,0 +1,21 @@
+package com.saasquatch.jsonschemainferrer;
+
+import com.saasquatch.jsonschemainferrer.annotations.Beta;
+
+/**
+ * Thrown when an inference exceeds its budget and the {@link BudgetExceededAction} is
+ * {@link BudgetExceededAction#FAIL}.
+ *
+ * @author sli
+ * @see JsonSchemaInferrerBuilder#setBudgetExceededAction(BudgetExceededAction)
+ */
+@Beta
+public final class InferenceBudgetExceededException extends IllegalStateException {
+
+  private static final long serialVersionUID = 1L;
+
+  InferenceBudgetExceededException(String message) {
+    super(message);
+  }
+
+}
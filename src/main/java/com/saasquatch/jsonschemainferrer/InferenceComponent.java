@@ -0,0 +1,30 @@
+package com.saasquatch.jsonschemainferrer;
+
+import com.saasquatch.jsonschemainferrer.annotations.Beta;
+
+/**
+ * The kinds of configurable components whose time is reported to {@link InferenceListener}s
+ *
+ * @author sli
+ * @see InferenceListener#onComponentCalled(InferenceComponent, String, long)
+ */
+@Beta
+public enum InferenceComponent {
+
+  /**
+   * {@link EnumExtractor}s
+   */
+  ENUM_EXTRACTOR,
+
+  /**
+   * {@link FormatInferrer}s
+   */
+  FORMAT_INFERRER,
+
+  /**
+   * {@link GenericSchemaFeature}s, including the built-in policies and features
+   */
+  GENERIC_SCHEMA_FEATURE,
+  ;
+
+}
@@ -0,0 +1,51 @@
+package com.saasquatch.jsonschemainferrer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * JDK Flight Recorder events for the phases of inference. This is the Java 8 version, which does
+ * nothing. The Java 11+ version in {@code src/main/java11}, which emits the events, is packaged in
+ * the multi-release jar, so the two versions must have the same methods. Not public.
+ *
+ * @author sli
+ */
+final class InferenceEvents {
+
+  private InferenceEvents() {}
+
+  /**
+   * @return The event for a whole inference, or null if the event is not enabled
+   */
+  @Nullable
+  static Object beginInference() {
+    return null;
+  }
+
+  static void commitInference(@Nullable Object event, long sampleCount) {}
+
+  /**
+   * @return The event for processing the object, array or primitive samples at a path, or null if
+   * the event is not enabled
+   */
+  @Nullable
+  static Object beginProcessSamples() {
+    return null;
+  }
+
+  static void commitProcessSamples(@Nullable Object event, @Nonnull String type,
+      @Nonnull JsonPath path, long sampleCount) {}
+
+  /**
+   * @return The event for extracting enums from the samples at a path, or null if the event is not
+   * enabled
+   */
+  @Nullable
+  static Object beginEnumExtraction() {
+    return null;
+  }
+
+  static void commitEnumExtraction(@Nullable Object event, @Nonnull JsonPath path,
+      int sampleCount) {}
+
+}
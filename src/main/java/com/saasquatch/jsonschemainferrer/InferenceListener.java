@@ -0,0 +1,47 @@
+package com.saasquatch.jsonschemainferrer;
+
+import com.saasquatch.jsonschemainferrer.annotations.Beta;
+import java.util.concurrent.ForkJoinPool;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Listener for metrics of inference, e.g. for finding out which JSON paths or components take the
+ * most time. The methods are called synchronously on the inferring threads, so implementations are
+ * expected to be cheap. They are also expected to be thread safe, since they can be called
+ * concurrently when a {@link ForkJoinPool} is set or when the same inferrer is used on multiple
+ * threads. No metrics are collected when no listener is set.
+ *
+ * @author sli
+ * @see JsonSchemaInferrerBuilder#setInferenceListener(InferenceListener)
+ */
+@Beta
+public interface InferenceListener {
+
+  /**
+   * Called after the schema of a JSON path has been built from its samples
+   */
+  default void onPathInferred(@Nonnull PathInferenceStats stats) {}
+
+  /**
+   * Called after a configured component has been called
+   *
+   * @param component The kind of component
+   * @param path      The JSON path the component was called for
+   * @param nanos     The time spent in the component in nanoseconds
+   */
+  default void onComponentCalled(@Nonnull InferenceComponent component, @Nonnull String path,
+      @Nonnegative long nanos) {}
+
+  /**
+   * Called after a schema has been inferred, e.g. by
+   * {@link JsonSchemaInferrer#inferForSamples(java.util.Collection)} or
+   * {@link SchemaAccumulator#toSchema()}
+   *
+   * @param sampleCount The number of root samples
+   * @param nanos       The time spent in nanoseconds. For {@link SchemaAccumulator}s, this does not
+   *                    include the time spent adding the samples.
+   */
+  default void onInferenceCompleted(@Nonnegative long sampleCount, @Nonnegative long nanos) {}
+
+}
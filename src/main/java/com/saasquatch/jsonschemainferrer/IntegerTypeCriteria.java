@@ -9,6 +9,11 @@ import static com.saasquatch.jsonschemainferrer.JunkDrawer.isMathematicalInteger
  */
 public final class IntegerTypeCriteria {
 
+  private static final IntegerTypeCriterion NON_FLOATING_POINT =
+      input -> input.getSample().isIntegralNumber();
+  private static final IntegerTypeCriterion MATHEMATICAL_INTEGER =
+      input -> isMathematicalIntegerNode(input.getSample());
+
   private IntegerTypeCriteria() {}
 
   /**
@@ -16,7 +21,7 @@ public final class IntegerTypeCriteria {
    * For example, 1 is an integer and 1.0 is not.
    */
   public static IntegerTypeCriterion nonFloatingPoint() {
-    return input -> input.getSample().isIntegralNumber();
+    return NON_FLOATING_POINT;
   }
 
   /**
@@ -24,7 +29,7 @@ public final class IntegerTypeCriteria {
    * integers and 1.5 is not.
    */
   public static IntegerTypeCriterion mathematicalInteger() {
-    return input -> isMathematicalIntegerNode(input.getSample());
+    return MATHEMATICAL_INTEGER;
   }
 
 }
@@ -54,4 +54,12 @@ public enum IntegerTypePreference {
   abstract boolean shouldUseInteger(@Nonnull BooleanSupplier currentNumberIsInteger,
       boolean allNumbersAreIntegers);
 
+  /**
+   * @return Whether {@link #shouldUseInteger(BooleanSupplier, boolean)} depends on whether all the
+   * numbers are integers, so the decision can only be made after all the numbers have been seen
+   */
+  boolean dependsOnAllNumbers() {
+    return this == IF_ALL;
+  }
+
 }
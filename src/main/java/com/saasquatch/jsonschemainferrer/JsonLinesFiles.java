@@ -0,0 +1,103 @@
+package com.saasquatch.jsonschemainferrer;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Utilities for reading JSON Lines files, i.e. files with one UTF-8 encoded JSON value per line, in
+ * chunks that can be parsed independently. Since JSON strings cannot contain raw newlines, a file
+ * can be split right after any newline without splitting a JSON value. Not public.
+ *
+ * @author sli
+ * @see JsonSchemaInferrer#inferForJsonLines(java.nio.file.Path)
+ */
+final class JsonLinesFiles {
+
+  private static final int SCAN_BUFFER_SIZE = 8192;
+
+  private JsonLinesFiles() {}
+
+  /**
+   * @return Whether the file starts with the gzip magic number
+   */
+  static boolean isGzip(@Nonnull FileChannel channel) throws IOException {
+    final ByteBuffer buf = ByteBuffer.allocate(2);
+    while (buf.hasRemaining()) {
+      if (channel.read(buf, buf.position()) < 0) {
+        return false;
+      }
+    }
+    // The magic number is little endian
+    final int magic = buf.get(0) & 0xFF | (buf.get(1) & 0xFF) << 8;
+    return magic == GZIPInputStream.GZIP_MAGIC;
+  }
+
+  /**
+   * Split the file into chunks of roughly the given size
+   *
+   * @return The offsets of the chunks, which start with 0 and end with the size of the file. Every
+   * chunk but the last one ends right after a newline.
+   */
+  @Nonnull
+  static List<Long> getChunkOffsets(@Nonnull FileChannel channel, @Nonnegative long chunkSize)
+      throws IOException {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Invalid chunkSize");
+    }
+    final long size = channel.size();
+    final List<Long> offsets = new ArrayList<>();
+    offsets.add(0L);
+    final ByteBuffer buf = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+    long offset = 0;
+    while (size - offset > chunkSize) {
+      final long newlineOffset = findNewline(channel, offset + chunkSize - 1, buf);
+      if (newlineOffset < 0 || newlineOffset == size - 1) {
+        break;
+      }
+      offset = newlineOffset + 1;
+      offsets.add(offset);
+    }
+    offsets.add(size);
+    return offsets;
+  }
+
+  /**
+   * @return The offset of the first newline at or after the given offset, or -1 if there is none
+   */
+  private static long findNewline(@Nonnull FileChannel channel, long fromOffset,
+      @Nonnull ByteBuffer buf) throws IOException {
+    long offset = fromOffset;
+    while (true) {
+      buf.clear();
+      final int read = channel.read(buf, offset);
+      if (read < 0) {
+        return -1;
+      }
+      for (int i = 0; i < read; i++) {
+        if (buf.get(i) == '\n') {
+          return offset + i;
+        }
+      }
+      offset += read;
+    }
+  }
+
+  /**
+   * Open the chunk between the given offsets by memory mapping it
+   */
+  @Nonnull
+  static InputStream openChunk(@Nonnull FileChannel channel, long startOffset, long endOffset)
+      throws IOException {
+    return new ByteBufferBackedInputStream(
+        channel.map(FileChannel.MapMode.READ_ONLY, startOffset, endOffset - startOffset));
+  }
+
+}
@@ -0,0 +1,80 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.escapeSingleQuoteString;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A JSON path of the current traversal, represented as a pointer to the parent path plus the last
+ * segment. The string form is only rendered when it is actually requested, and it is cached
+ * afterwards. Not public.
+ *
+ * @author sli
+ */
+@Immutable
+final class JsonPath {
+
+  static final JsonPath ROOT = new JsonPath(null, null, "$");
+
+  private final JsonPath parent;
+  // The number of segments after the root
+  private final int depth;
+  // The unescaped field name for object paths, or null for array paths and the root
+  private final String fieldName;
+  /*
+   * The rendered path. Racy writes are fine here since the value is always the same immutable
+   * string.
+   */
+  private String pathString;
+
+  private JsonPath(@Nullable JsonPath parent, @Nullable String fieldName,
+      @Nullable String pathString) {
+    this.parent = parent;
+    this.depth = parent == null ? 0 : parent.depth + 1;
+    this.fieldName = fieldName;
+    this.pathString = pathString;
+  }
+
+  @Nonnull
+  JsonPath appendObject(@Nonnull String fieldName) {
+    return new JsonPath(this, fieldName, null);
+  }
+
+  @Nonnull
+  JsonPath appendArrayStar() {
+    return new JsonPath(this, null, null);
+  }
+
+  /**
+   * @return The number of segments after the root, which is 0 for the root
+   */
+  int getDepth() {
+    return depth;
+  }
+
+  @Override
+  public String toString() {
+    String s = pathString;
+    if (s == null) {
+      s = render(new StringBuilder()).toString();
+      pathString = s;
+    }
+    return s;
+  }
+
+  @Nonnull
+  private StringBuilder render(@Nonnull StringBuilder sb) {
+    final String s = pathString;
+    if (s != null) {
+      return sb.append(s);
+    }
+    parent.render(sb);
+    if (fieldName == null) {
+      return sb.append("[*]");
+    }
+    return sb.append("['").append(escapeSingleQuoteString(fieldName)).append("']");
+  }
+
+}
@@ -1,32 +1,51 @@
 package com.saasquatch.jsonschemainferrer;
 
-import static com.saasquatch.jsonschemainferrer.JunkDrawer.appendArrayStarJsonPath;
-import static com.saasquatch.jsonschemainferrer.JunkDrawer.appendObjectJsonPath;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.JSON_FACTORY;
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.format;
-import static com.saasquatch.jsonschemainferrer.JunkDrawer.getAllFieldNames;
-import static com.saasquatch.jsonschemainferrer.JunkDrawer.getAllValuesForFieldName;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.getStratifiedSampleIndex;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.groupValuesByFieldName;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.isMathematicalIntegerNode;
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.isNull;
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.isTextualFloat;
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.newArray;
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.newObject;
-import static com.saasquatch.jsonschemainferrer.JunkDrawer.stream;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.stratifiedSample;
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.stringColToArrayDistinct;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.ValueNode;
+import com.saasquatch.jsonschemainferrer.annotations.Beta;
 import com.saasquatch.jsonschemainferrer.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
@@ -38,10 +57,20 @@ import javax.annotation.concurrent.Immutable;
  * @see #newBuilder()
  * @see #inferForSample(JsonNode)
  * @see #inferForSamples(Collection)
+ * @see #newAccumulator()
  */
 @Immutable
 public final class JsonSchemaInferrer {
 
+  // Sample collections at least twice this large are inferred in partitions when parallel
+  private static final int MIN_PARTITION_SIZE = 512;
+  // The type of primitive samples in InferenceEvents
+  static final String PRIMITIVE = "primitive";
+  // Bounds of the sizes of the chunks JSON Lines files are split into
+  private static final long MIN_JSON_LINES_CHUNK_SIZE = 1 << 20;
+  private static final long MAX_JSON_LINES_CHUNK_SIZE = 1 << 28;
+  private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
   // All the fields are non-null
   private final SpecVersion specVersion;
   private final IntegerTypePreference integerTypePreference;
@@ -49,20 +78,53 @@ public final class JsonSchemaInferrer {
   private final EnumExtractor enumExtractor;
   private final TitleDescriptionGenerator titleDescriptionGenerator;
   private final FormatInferrer formatInferrer;
-  private final GenericSchemaFeature genericSchemaFeature;
+  // Null if format results are not cached
+  private final FormatCache formatCache;
+  // Keyed by schema types, with the null key for schemas without a type
+  private final Map<String, GenericSchemaFeature> genericSchemaFeaturesByType;
+  // Null if the samples cannot be summarized
+  private final SummaryOptions summaryOptions;
+  // Null if inference is sequential
+  private final ForkJoinPool forkJoinPool;
+  // 0 if the number of samples per path is not limited
+  private final int maxSamplesPerPath;
+  // Null if no metrics are collected
+  private final InferenceListener inferenceListener;
+  // Null if inference is not limited
+  private final InferenceBudget inferenceBudget;
+  // Whether samples with the same shape are only inferred once
+  private final boolean deduplicateShapes;
+  // Whether equal subschemas of result schemas are shared
+  private final boolean schemaInterning;
+  // Whether the root property subschemas can be inferred as they are written
+  private final boolean propertiesIndependent;
 
   JsonSchemaInferrer(@Nonnull SpecVersion specVersion,
       @Nonnull IntegerTypePreference integerTypePreference,
       @Nonnull IntegerTypeCriterion integerTypeCriterion, @Nonnull EnumExtractor enumExtractor,
       @Nonnull TitleDescriptionGenerator titleDescriptionGenerator,
-      @Nonnull FormatInferrer formatInferrer, @Nonnull GenericSchemaFeature genericSchemaFeature) {
+      @Nonnull FormatInferrer formatInferrer, @Nullable FormatCache formatCache,
+      @Nonnull Map<String, GenericSchemaFeature> genericSchemaFeaturesByType,
+      @Nullable SummaryOptions summaryOptions, @Nullable ForkJoinPool forkJoinPool,
+      @Nonnegative int maxSamplesPerPath, @Nullable InferenceListener inferenceListener,
+      @Nullable InferenceBudget inferenceBudget, boolean deduplicateShapes,
+      boolean schemaInterning, boolean propertiesIndependent) {
     this.specVersion = specVersion;
     this.integerTypePreference = integerTypePreference;
     this.integerTypeCriterion = integerTypeCriterion;
     this.enumExtractor = enumExtractor;
     this.titleDescriptionGenerator = titleDescriptionGenerator;
     this.formatInferrer = formatInferrer;
-    this.genericSchemaFeature = genericSchemaFeature;
+    this.formatCache = formatCache;
+    this.genericSchemaFeaturesByType = genericSchemaFeaturesByType;
+    this.summaryOptions = summaryOptions;
+    this.forkJoinPool = forkJoinPool;
+    this.maxSamplesPerPath = maxSamplesPerPath;
+    this.inferenceListener = inferenceListener;
+    this.inferenceBudget = inferenceBudget;
+    this.deduplicateShapes = deduplicateShapes;
+    this.schemaInterning = schemaInterning;
+    this.propertiesIndependent = propertiesIndependent;
   }
 
   /**
@@ -92,18 +154,312 @@ public final class JsonSchemaInferrer {
    */
   @Nonnull
   public ObjectNode inferForSamples(@Nonnull Collection<? extends JsonNode> samples) {
+    return inferForSamples(samples, null);
+  }
+
+  /**
+   * Infer the JSON schema from multiple sample JSONs with a {@link CancellationToken} that can be
+   * used for stopping the inference from another thread.
+   *
+   * @param samples           the sample JSONs
+   * @param cancellationToken the token checked before each JSON path is inferred
+   * @return the inferred JSON schema
+   * @throws java.util.concurrent.CancellationException if the token is cancelled before the
+   *                                                    inference is done
+   */
+  @Beta
+  @Nonnull
+  public ObjectNode inferForSamples(@Nonnull Collection<? extends JsonNode> samples,
+      @Nullable CancellationToken cancellationToken) {
+    final Object event = InferenceEvents.beginInference();
+    final long startNanos = inferenceListener == null ? 0 : System.nanoTime();
+    final ObjectNode schema = doInferForSamples(samples, cancellationToken, null);
+    reportInferenceCompleted(samples.size(), startNanos);
+    InferenceEvents.commitInference(event, samples.size());
+    return schema;
+  }
+
+  /**
+   * @param schemaWriter The writer the root property subschemas are deferred to, or null if the
+   *                     whole schema should be built
+   */
+  @Nonnull
+  ObjectNode doInferForSamples(@Nonnull Collection<? extends JsonNode> samples,
+      @Nullable CancellationToken cancellationToken,
+      @Nullable StreamingSchemaWriter schemaWriter) {
     if (samples.isEmpty()) {
       throw new IllegalArgumentException("Unable to process empty samples");
     }
+    final Collection<? extends JsonNode> distinctSamples =
+        deduplicateShapes ? SampleShape.getDistinctShapes(samples) : samples;
+    final InferenceBudget.Tracker budgetTracker =
+        InferenceBudget.newTracker(inferenceBudget, cancellationToken);
+    // Partitions are inferred with accumulators, which do not check budgets
+    if (forkJoinPool != null && summaryOptions != null && maxSamplesPerPath == 0
+        && budgetTracker == null && distinctSamples.size() >= 2 * MIN_PARTITION_SIZE) {
+      return inferForPartitions(new ArrayList<>(distinctSamples), schemaWriter);
+    }
     final Collection<JsonNode> processedSamples =
-        samples.stream().map(this::preProcessSample).collect(Collectors.toList());
+        distinctSamples.stream().map(this::preProcessSample).collect(Collectors.toList());
+    final Set<ObjectNode> anyOfs = getAnyOfsFromSamples(processedSamples, JsonPath.ROOT,
+        budgetTracker, propertiesIndependent ? schemaWriter : null);
+    // anyOfs cannot be empty here, since we force inputs to be non-empty
+    return newRootSchema(anyOfs, processedSamples);
+  }
+
+  /**
+   * Infer the JSON schema from multiple sample JSONs and write it with the given
+   * {@link JsonGenerator}, e.g. for publishing the schema without a round trip through an
+   * {@link com.fasterxml.jackson.databind.ObjectMapper}. The output is the same as serializing the
+   * result of {@link #inferForSamples(Collection)} with the same field order. If the samples are
+   * all objects, the subschemas of their properties are inferred and written one at a time, so the
+   * whole schema is never held in memory. This is not possible if a custom
+   * {@link GenericSchemaFeature} or policy, or
+   * {@link AdditionalPropertiesPolicies#existingTypes()}, is used, since they may read the
+   * property subschemas. The {@link JsonGenerator} is flushed but not closed by this method.
+   *
+   * @param samples   the sample JSONs
+   * @param generator the generator to write the JSON schema with
+   * @throws IOException if writing fails
+   */
+  @Beta
+  public void writeSchemaForSamples(@Nonnull Collection<? extends JsonNode> samples,
+      @Nonnull JsonGenerator generator) throws IOException {
+    final Object event = InferenceEvents.beginInference();
+    final long startNanos = inferenceListener == null ? 0 : System.nanoTime();
+    final StreamingSchemaWriter schemaWriter = new StreamingSchemaWriter();
+    schemaWriter.write(generator, doInferForSamples(samples, null, schemaWriter));
+    reportInferenceCompleted(samples.size(), startNanos);
+    InferenceEvents.commitInference(event, samples.size());
+    generator.flush();
+  }
+
+  /**
+   * Infer the JSON schema from multiple sample JSONs and write it to the given
+   * {@link OutputStream} as UTF-8 encoded JSON. The {@link OutputStream} is flushed but not closed
+   * by this method.
+   *
+   * @param samples the sample JSONs
+   * @param out     the output
+   * @throws IOException if writing fails
+   * @see #writeSchemaForSamples(Collection, JsonGenerator)
+   */
+  @Beta
+  public void writeSchemaForSamples(@Nonnull Collection<? extends JsonNode> samples,
+      @Nonnull OutputStream out) throws IOException {
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+      writeSchemaForSamples(samples, generator);
+    }
+  }
+
+  /**
+   * Infer the JSON schema by accumulating partitions of the samples in parallel and merging them
+   */
+  @Nonnull
+  private ObjectNode inferForPartitions(@Nonnull List<? extends JsonNode> samples,
+      @Nullable StreamingSchemaWriter schemaWriter) {
+    final int partitionSize = Math.max(MIN_PARTITION_SIZE,
+        (samples.size() - 1) / (forkJoinPool.getParallelism() * 4) + 1);
+    final List<Supplier<SchemaAccumulator>> tasks = new ArrayList<>();
+    for (int from = 0; from < samples.size(); from += partitionSize) {
+      final List<? extends JsonNode> partition =
+          samples.subList(from, Math.min(from + partitionSize, samples.size()));
+      tasks.add(() -> {
+        final SchemaAccumulator accumulator = newAccumulator();
+        partition.forEach(accumulator::add);
+        return accumulator;
+      });
+    }
+    final List<SchemaAccumulator> accumulators = invokeAll(tasks);
+    final SchemaAccumulator merged = accumulators.get(0);
+    // Merge in order so the result is the same as sequential inference
+    accumulators.subList(1, accumulators.size()).forEach(merged::merge);
+    return merged.buildSchema(schemaWriter);
+  }
+
+  /**
+   * Run the given tasks in {@link #forkJoinPool} if available, or sequentially otherwise.
+   *
+   * @return The results of the tasks in the same order as the tasks
+   */
+  @Nonnull
+  private <T> List<T> invokeAll(@Nonnull List<? extends Supplier<T>> tasks) {
+    if (forkJoinPool == null || tasks.size() <= 1) {
+      return tasks.stream().map(task -> task.get()).collect(Collectors.toList());
+    }
+    if (ForkJoinTask.getPool() != forkJoinPool) {
+      // Get into the pool first, so the tasks and their subtasks are all forked within it
+      final Callable<List<T>> callable = () -> invokeAll(tasks);
+      return forkJoinPool.invoke(ForkJoinTask.adapt(callable));
+    }
+    final List<ForkJoinTask<T>> forkJoinTasks = new ArrayList<>(tasks.size());
+    for (Supplier<T> task : tasks) {
+      // Bind to a Callable first, since adapt is overloaded for Runnable and Callable
+      final Callable<T> callable = task::get;
+      forkJoinTasks.add(ForkJoinTask.adapt(callable));
+    }
+    ForkJoinTask.invokeAll(forkJoinTasks);
+    return forkJoinTasks.stream().map(ForkJoinTask::join).collect(Collectors.toList());
+  }
+
+  /**
+   * Create a new {@link SchemaAccumulator} that infers the JSON schema from samples added one at a
+   * time. With the built-in policies and features, the accumulator only keeps summaries of the
+   * samples, so its memory usage is bounded by the shape of the schema instead of the number of
+   * samples. Custom {@link GenericSchemaFeature}s, policies and {@link EnumExtractor}s need the
+   * samples themselves, in which case the accumulator has to retain all the samples.
+   *
+   * @return A new {@link SchemaAccumulator} using the options of this inferrer
+   */
+  @Nonnull
+  @Beta
+  public SchemaAccumulator newAccumulator() {
+    return new SchemaAccumulator(this, summaryOptions);
+  }
+
+  /**
+   * Read a {@link SchemaAccumulator} encoded with
+   * {@link SchemaAccumulator#writeTo(java.io.OutputStream)}. The accumulator must be written by an
+   * inferrer with the same options as this one, and the result can be merged with the accumulators
+   * of this inferrer.
+   *
+   * @param in the encoded input, which is not closed by this method
+   * @return the decoded {@link SchemaAccumulator}
+   * @throws IOException              if reading the input fails or the input is malformed
+   * @throws IllegalArgumentException if the accumulator is written by an inferrer with different
+   *                                  options
+   * @see SchemaAccumulator#merge(SchemaAccumulator)
+   */
+  @Nonnull
+  @Beta
+  public SchemaAccumulator readAccumulator(@Nonnull InputStream in) throws IOException {
+    return SchemaAccumulator.readFrom(in, this, summaryOptions);
+  }
+
+  /**
+   * Infer the JSON schema from a JSON Lines file, i.e. a file with one UTF-8 encoded JSON value per
+   * line, without reading all the samples into memory. Uncompressed files are memory mapped and
+   * split into chunks on line boundaries, which are parsed and accumulated in parallel if a
+   * {@link ForkJoinPool} is {@link JsonSchemaInferrerBuilder#setForkJoinPool(ForkJoinPool) set}.
+   * Gzip compressed files, which are detected by their magic number, are decompressed and parsed
+   * sequentially as a stream. The result is the same as {@link #inferForSamples(Collection)} with
+   * all the values in the file.
+   *
+   * @param path the path of the JSON Lines file
+   * @return the inferred JSON schema
+   * @throws IOException              if reading the file fails or it contains malformed JSON
+   * @throws IllegalArgumentException if the file has no JSON values or contains unsupported values
+   * @see SchemaAccumulator#addAllFrom(InputStream)
+   */
+  @Nonnull
+  @Beta
+  public ObjectNode inferForJsonLines(@Nonnull Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final int chunkCount = forkJoinPool == null ? 1 : forkJoinPool.getParallelism() * 4;
+      final long chunkSize = Math.min(MAX_JSON_LINES_CHUNK_SIZE,
+          Math.max(MIN_JSON_LINES_CHUNK_SIZE, channel.size() / chunkCount + 1));
+      return inferForJsonLines(channel, chunkSize);
+    }
+  }
+
+  @Nonnull
+  @VisibleForTesting
+  ObjectNode inferForJsonLines(@Nonnull FileChannel channel, long chunkSize) throws IOException {
+    final Object event = InferenceEvents.beginInference();
+    final long startNanos = inferenceListener == null ? 0 : System.nanoTime();
+    final SchemaAccumulator accumulator;
+    if (JsonLinesFiles.isGzip(channel)) {
+      try (InputStream in = new GZIPInputStream(Channels.newInputStream(channel.position(0)),
+          GZIP_BUFFER_SIZE)) {
+        accumulator = newAccumulator().addAllFrom(in);
+      }
+    } else {
+      final List<Long> offsets = JsonLinesFiles.getChunkOffsets(channel, chunkSize);
+      final List<Supplier<SchemaAccumulator>> tasks = new ArrayList<>();
+      for (int i = 0; i < offsets.size() - 1; i++) {
+        final long startOffset = offsets.get(i);
+        final long endOffset = offsets.get(i + 1);
+        tasks.add(() -> {
+          try (InputStream in = JsonLinesFiles.openChunk(channel, startOffset, endOffset)) {
+            return newAccumulator().addAllFrom(in);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      }
+      final List<SchemaAccumulator> accumulators;
+      try {
+        accumulators = invokeAll(tasks);
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      accumulator = accumulators.get(0);
+      // Merge in order so the result is the same as sequential inference
+      accumulators.subList(1, accumulators.size()).forEach(accumulator::merge);
+    }
+    if (accumulator.getSampleCount() == 0) {
+      throw new IllegalArgumentException("Unable to process empty samples");
+    }
+    final ObjectNode schema = accumulator.buildSchema(null);
+    reportInferenceCompleted(accumulator.getSampleCount(), startNanos);
+    InferenceEvents.commitInference(event, accumulator.getSampleCount());
+    return schema;
+  }
+
+  /**
+   * Report the completion of an inference to the {@link InferenceListener} if there is one
+   *
+   * @param startNanos The {@link System#nanoTime()} when the inference started
+   */
+  void reportInferenceCompleted(long sampleCount, long startNanos) {
+    if (inferenceListener != null) {
+      inferenceListener.onInferenceCompleted(sampleCount, System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * Report the statistics of a JSON path to the {@link InferenceListener} if there is one
+   */
+  void reportPathInferred(@Nonnull JsonPath path, long objectCount, long arrayCount,
+      long primitiveCount, long enumValueCount, int anyOfCount) {
+    if (inferenceListener != null) {
+      inferenceListener.onPathInferred(new PathInferenceStats(path, objectCount, arrayCount,
+          primitiveCount, enumValueCount, anyOfCount));
+    }
+  }
+
+  private void reportComponentCalled(@Nonnull InferenceComponent component,
+      @Nonnull JsonPath path, long startNanos) {
+    inferenceListener.onComponentCalled(component, path.toString(),
+        System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Build the root schema with the given anyOfs, with its equal subschemas shared if enabled
+   */
+  @Nonnull
+  ObjectNode newRootSchema(@Nonnull Set<ObjectNode> anyOfs,
+      @Nonnull Collection<? extends JsonNode> samples) {
     final ObjectNode schema = newObject();
     schema.put(Consts.Fields.DOLLAR_SCHEMA, specVersion.getMetaSchemaUrl());
-    final Set<ObjectNode> anyOfs = getAnyOfsFromSamples(processedSamples, Consts.JsonPath.ROOT);
+    setAnyOfs(schema, anyOfs, samples, JsonPath.ROOT);
+    if (schemaInterning) {
+      new SchemaInterner().internDescendants(schema);
+    }
+    return schema;
+  }
+
+  /**
+   * Set the given anyOfs into the given schema, either directly or as {@code anyOf}
+   *
+   * @param anyOfs  Cannot be empty
+   * @param samples The samples for the {@code anyOf} schema
+   */
+  void setAnyOfs(@Nonnull ObjectNode schema, @Nonnull Set<ObjectNode> anyOfs,
+      @Nonnull Collection<? extends JsonNode> samples, @Nonnull JsonPath path) {
     switch (anyOfs.size()) {
       case 0:
-        // anyOfs cannot be empty here, since we force inputs to be non-empty
-        throw new AssertionError("empty anyOfs encountered in inferForSamples");
+        throw new AssertionError("empty anyOfs encountered");
       case 1:
         schema.setAll(anyOfs.iterator().next());
         // No need to call processGenericSchemaFeature since this is an existing schema
@@ -111,18 +467,17 @@ public final class JsonSchemaInferrer {
       default: {
         schema.set(Consts.Fields.ANY_OF, newArray(anyOfs));
         // This is an anyOf schema. No type available.
-        processGenericSchemaFeature(schema, processedSamples, null, Consts.JsonPath.ROOT);
+        processGenericSchemaFeature(schema, samples, null, path);
         break;
       }
     }
-    return schema;
   }
 
   /**
    * Pre-process a {@link JsonNode} input.
    */
   @Nonnull
-  private JsonNode preProcessSample(@Nullable JsonNode sample) {
+  JsonNode preProcessSample(@Nullable JsonNode sample) {
     if (sample == null) {
       return JsonNodeFactory.instance.nullNode();
     } else if (sample.isPojo()) {
@@ -140,46 +495,69 @@ public final class JsonSchemaInferrer {
 
   /**
    * Handle object samples
+   *
+   * @param schemaWriter The writer the property subschemas are deferred to, or null if they should
+   *                     be inferred now
    */
   @Nullable
   private ObjectNode processObjects(@Nonnull Collection<ObjectNode> objectNodes,
-      @Nonnull String path) {
+      @Nonnull JsonPath path, @Nullable InferenceBudget.Tracker budgetTracker,
+      @Nullable StreamingSchemaWriter schemaWriter) {
     if (objectNodes.isEmpty()) {
       return null;
     }
-    // All the field names across all samples combined
-    final Set<String> allFieldNames = getAllFieldNames(objectNodes);
+    // All the values across all samples grouped by field names in one pass
+    final Map<String, List<JsonNode>> valuesByFieldName = groupValuesByFieldName(objectNodes);
+    final List<Supplier<ObjectNode>> propertyTasks = valuesByFieldName.entrySet().stream()
+        .map(entry -> (Supplier<ObjectNode>) () -> processProperty(entry.getKey(),
+            entry.getValue(), path, budgetTracker))
+        .collect(Collectors.toCollection(ArrayList::new));
+    if (schemaWriter != null) {
+      return newObjectSchema(
+          schemaWriter.deferProperties(valuesByFieldName.keySet(), propertyTasks), objectNodes,
+          null, path);
+    }
+    // The properties are independent of each other, so they can be inferred in parallel
+    final List<ObjectNode> newProperties = invokeAll(propertyTasks);
     final ObjectNode properties = newObject();
-    for (String fieldName : allFieldNames) {
-      // Get the vals from samples that have the field name. vals cannot be empty.
-      final Collection<JsonNode> processedSamples = getAllValuesForFieldName(objectNodes, fieldName)
-          .map(this::preProcessSample).collect(Collectors.toList());
-      final ObjectNode newProperty = newObject();
-      handleDescriptionGeneration(newProperty, fieldName);
-      final String objectPath = appendObjectJsonPath(path, fieldName);
-      final Set<ObjectNode> anyOfs = getAnyOfsFromSamples(processedSamples, objectPath);
-      switch (anyOfs.size()) {
-        case 0:
-          // anyOfs cannot be empty here, since we should have at least one match of the fieldName
-          throw new AssertionError("empty anyOfs encountered");
-        case 1:
-          newProperty.setAll(anyOfs.iterator().next());
-          // No need to call processGenericSchemaFeature since this is an existing schema
-          break;
-        default: {
-          newProperty.set(Consts.Fields.ANY_OF, newArray(anyOfs));
-          // This is an anyOf schema. No type available.
-          processGenericSchemaFeature(newProperty, processedSamples, null, objectPath);
-          break;
-        }
-      }
-      properties.set(fieldName, newProperty);
+    final Iterator<ObjectNode> newPropertiesIter = newProperties.iterator();
+    for (String fieldName : valuesByFieldName.keySet()) {
+      properties.set(fieldName, newPropertiesIter.next());
     }
+    return newObjectSchema(properties, objectNodes, null, path);
+  }
+
+  /**
+   * Handle the values of a single field of object samples
+   */
+  @Nonnull
+  private ObjectNode processProperty(@Nonnull String fieldName,
+      @Nonnull List<JsonNode> processedSamples, @Nonnull JsonPath path,
+      @Nullable InferenceBudget.Tracker budgetTracker) {
+    // The vals from samples that have the field name. vals cannot be empty.
+    processedSamples.replaceAll(this::preProcessSample);
+    final ObjectNode newProperty = newObject();
+    handleDescriptionGeneration(newProperty, fieldName);
+    final JsonPath objectPath = path.appendObject(fieldName);
+    final Set<ObjectNode> anyOfs =
+        getAnyOfsFromSamples(processedSamples, objectPath, budgetTracker, null);
+    // anyOfs cannot be empty here, since we should have at least one match of the fieldName
+    setAnyOfs(newProperty, anyOfs, processedSamples, objectPath);
+    return newProperty;
+  }
+
+  /**
+   * Build the schema for objects with the given properties
+   */
+  @Nonnull
+  ObjectNode newObjectSchema(@Nonnull ObjectNode properties,
+      @Nonnull Collection<? extends JsonNode> objectNodes, @Nullable SamplesSummary samplesSummary,
+      @Nonnull JsonPath path) {
     final ObjectNode schema = newObject().put(Consts.Fields.TYPE, Consts.Types.OBJECT);
     if (!properties.isEmpty()) {
       schema.set(Consts.Fields.PROPERTIES, properties);
     }
-    processGenericSchemaFeature(schema, objectNodes, Consts.Types.OBJECT, path);
+    processGenericSchemaFeature(schema, objectNodes, samplesSummary, Consts.Types.OBJECT, path);
     return schema;
   }
 
@@ -188,18 +566,31 @@ public final class JsonSchemaInferrer {
    */
   @Nullable
   private ObjectNode processArrays(@Nonnull Collection<ArrayNode> arrayNodes,
-      @Nonnull String path) {
+      @Nonnull JsonPath path, @Nullable InferenceBudget.Tracker budgetTracker) {
     if (arrayNodes.isEmpty()) {
       return null;
     }
     // Note that samples can be empty here if the sample arrays are empty
-    final Collection<JsonNode> processedSamples = arrayNodes.stream()
+    final List<JsonNode> allSamples = arrayNodes.stream()
         .flatMap(JunkDrawer::stream)
         .map(this::preProcessSample)
         .collect(Collectors.toList());
+    final Collection<JsonNode> processedSamples =
+        deduplicateShapes ? SampleShape.getDistinctShapes(allSamples) : allSamples;
+    final JsonPath arrayPath = path.appendArrayStar();
+    final Set<ObjectNode> anyOfs =
+        getAnyOfsFromSamples(processedSamples, arrayPath, budgetTracker, null);
+    return newArraySchema(anyOfs, arrayNodes, null, path);
+  }
+
+  /**
+   * Build the schema for arrays with the given anyOfs of the items
+   */
+  @Nonnull
+  ObjectNode newArraySchema(@Nonnull Set<ObjectNode> anyOfs,
+      @Nonnull Collection<? extends JsonNode> arrayNodes, @Nullable SamplesSummary samplesSummary,
+      @Nonnull JsonPath path) {
     final ObjectNode items;
-    final String arrayPath = appendArrayStarJsonPath(path);
-    final Set<ObjectNode> anyOfs = getAnyOfsFromSamples(processedSamples, arrayPath);
     switch (anyOfs.size()) {
       case 0:
         // anyOfs can be empty here, since the original array can be empty
@@ -217,7 +608,7 @@ public final class JsonSchemaInferrer {
     if (!items.isEmpty()) {
       schema.set(Consts.Fields.ITEMS, items);
     }
-    processGenericSchemaFeature(schema, arrayNodes, Consts.Types.ARRAY, path);
+    processGenericSchemaFeature(schema, arrayNodes, samplesSummary, Consts.Types.ARRAY, path);
     return schema;
   }
 
@@ -225,45 +616,112 @@ public final class JsonSchemaInferrer {
    * Handle primitive samples
    */
   @Nonnull
-  private Set<ObjectNode> processPrimitives(@Nonnull Collection<ValueNode> valueNodes,
-      @Nonnull String path) {
+  private Set<ObjectNode> processPrimitives(@Nonnull List<ValueNode> valueNodes,
+      @Nonnull JsonPath path) {
     if (valueNodes.isEmpty()) {
       return Collections.emptySet();
     }
     final Set<ObjectNode> anyOfs = new HashSet<>();
+    final boolean dependsOnAllNumbers = integerTypePreference.dependsOnAllNumbers();
     // Whether all the numbers in the samples are integers. Used for inferring number types.
-    final boolean allNumbersAreIntegers =
-        valueNodes.stream().filter(JsonNode::isNumber).allMatch(this::isInteger);
+    boolean allNumbersAreIntegers = true;
+    final int size = valueNodes.size();
+    final String[] types = new String[size];
     /*
-     * Map to keep track of examples. The keys are pairs of [type, format] stored in Lists, and the
-     * vales are examples for that type/format combo.
+     * Each number is evaluated by the IntegerTypeCriterion at most once. Whether all the numbers
+     * are integers is not known until the end of the pass, so numbers that are not integers on
+     * their own are typed as number for now.
+     */
+    for (int i = 0; i < size; i++) {
+      final ValueNode valueNode = valueNodes.get(i);
+      if (dependsOnAllNumbers && allNumbersAreIntegers && valueNode.isNumber()) {
+        allNumbersAreIntegers = isInteger(valueNode);
+      }
+      types[i] = inferPrimitiveType(valueNode, false);
+    }
+    if (dependsOnAllNumbers && allNumbersAreIntegers) {
+      for (int i = 0; i < size; i++) {
+        if (Consts.Types.NUMBER.equals(types[i])) {
+          types[i] = Consts.Types.INTEGER;
+        }
+      }
+    }
+    final String[] formats = inferFormats(valueNodes, types, path);
+    /*
+     * Table to keep track of examples. The keys are pairs of [type, format], and the values are
+     * examples for that type/format combo. The samples are only kept for the types that have
+     * generic schema features.
      */
     final PrimitivesSummaryMap primitivesSummaryMap = new PrimitivesSummaryMap();
-    for (ValueNode valueNode : valueNodes) {
+    for (int i = 0; i < size; i++) {
+      final String type = types[i];
+      primitivesSummaryMap.addSample(type, formats[i], valueNodes.get(i),
+          genericSchemaFeaturesByType.containsKey(type));
+    }
+    // Only one schema per type/format combo
+    for (PrimitivesSummary primitivesSummary : primitivesSummaryMap.getPrimitivesSummaries()) {
+      final String type = primitivesSummary.getType();
       final ObjectNode newAnyOf = newObject();
-      final String type = inferPrimitiveType(valueNode, allNumbersAreIntegers);
       newAnyOf.put(Consts.Fields.TYPE, type);
-      final String format = inferFormat(valueNode, path);
+      final String format = primitivesSummary.getFormat();
       if (format != null) {
         newAnyOf.put(Consts.Fields.FORMAT, format);
       }
-      primitivesSummaryMap.addSample(type, format, valueNode);
+      /*
+       * Add the anyOf before putting the combined examples and default into it, so the order of
+       * the anyOfs only depends on their types and formats as it always has.
+       */
       anyOfs.add(newAnyOf);
-    }
-    // Put the combined examples and default back into the result schema
-    for (ObjectNode anyOf : anyOfs) {
-      final String type = anyOf.path(Consts.Fields.TYPE).textValue();
-      final String format = anyOf.path(Consts.Fields.FORMAT).textValue();
-      @Nonnull final PrimitivesSummary primitivesSummary =
-          Objects.requireNonNull(primitivesSummaryMap.getPrimitivesSummary(type, format));
-      processGenericSchemaFeature(anyOf, primitivesSummary.getSamples(), type, path);
+      processGenericSchemaFeature(newAnyOf, primitivesSummary.getSamples(), type, path);
     }
     return anyOfs;
   }
 
+  /**
+   * Infer the formats of the given primitive samples. If the number of samples per path is
+   * limited, formats are only inferred for an evenly spaced subset of the samples, plus the first
+   * sample of each type that is not in the subset, and the other samples get the formats of their
+   * types as kept track of by {@link SampledFormats}.
+   */
+  @Nonnull
+  private String[] inferFormats(@Nonnull List<ValueNode> valueNodes, @Nonnull String[] types,
+      @Nonnull JsonPath path) {
+    final int size = valueNodes.size();
+    final String[] formats = new String[size];
+    if (formatInferrer == FormatInferrers.noOp()) {
+      return formats;
+    }
+    if (maxSamplesPerPath == 0 || size <= maxSamplesPerPath) {
+      for (int i = 0; i < size; i++) {
+        formats[i] = inferFormat(valueNodes.get(i), path);
+      }
+      return formats;
+    }
+    final boolean[] sampled = new boolean[size];
+    final SampledFormats sampledFormats = new SampledFormats();
+    for (int i = 0; i < maxSamplesPerPath; i++) {
+      final int index = getStratifiedSampleIndex(i, size, maxSamplesPerPath);
+      sampled[index] = true;
+      formats[index] = inferFormat(valueNodes.get(index), path);
+      sampledFormats.add(types[index], formats[index]);
+    }
+    for (int i = 0; i < size; i++) {
+      if (sampled[i]) {
+        continue;
+      }
+      if (sampledFormats.isSampled(types[i])) {
+        formats[i] = sampledFormats.getFormat(types[i]);
+      } else {
+        formats[i] = inferFormat(valueNodes.get(i), path);
+        sampledFormats.add(types[i], formats[i]);
+      }
+    }
+    return formats;
+  }
+
   @Nonnull
-  private ObjectNode enumExtractionResultToSchema(
-      @Nonnull Collection<? extends JsonNode> enumExtractionResult, @Nonnull String path) {
+  ObjectNode enumExtractionResultToSchema(
+      @Nonnull Collection<? extends JsonNode> enumExtractionResult, @Nonnull JsonPath path) {
     Objects.requireNonNull(enumExtractionResult);
     if (enumExtractionResult.isEmpty()) {
       throw new IllegalStateException("Empty enum group encountered");
@@ -281,18 +739,31 @@ public final class JsonSchemaInferrer {
    *
    * @param processedSamples The stream of samples that have gone through
    *                         {@link #preProcessSample(JsonNode)}
+   * @param budgetTracker    The budget of the current inference, or null if it is not limited
+   * @param schemaWriter     The writer the property subschemas are deferred to if the samples are
+   *                         all objects, which is only given for the root
    */
   @Nonnull
   private Set<ObjectNode> getAnyOfsFromSamples(
-      @Nonnull Collection<? extends JsonNode> processedSamples, @Nonnull String path) {
+      @Nonnull Collection<? extends JsonNode> processedSamples, @Nonnull JsonPath path,
+      @Nullable InferenceBudget.Tracker budgetTracker,
+      @Nullable StreamingSchemaWriter schemaWriter) {
+    if (budgetTracker != null && !processedSamples.isEmpty()) {
+      final String exceededLimit = budgetTracker.check(path, processedSamples.size());
+      if (exceededLimit != null) {
+        return Collections.singleton(newObject().put(Consts.Fields.DOLLAR_COMMENT,
+            format("Truncated since %s is exceeded", exceededLimit)));
+      }
+    }
     final Collection<Collection<? extends JsonNode>> enumExtractionResults =
-        getEnumExtractionResults(processedSamples, path);
+        getEnumExtractionResults(getEnumExtractionSamples(processedSamples), path);
+    // Index all the extracted enum values once, so excluding them is linear in the samples
+    final Set<JsonNode> enumValues = getAllEnumValues(enumExtractionResults);
     final Collection<ObjectNode> objectNodes = new ArrayList<>();
     final Collection<ArrayNode> arrayNodes = new ArrayList<>();
-    final Collection<ValueNode> valueNodes = new ArrayList<>();
+    final List<ValueNode> valueNodes = new ArrayList<>();
     for (JsonNode sample : processedSamples) {
-      if (enumExtractionResults.stream()
-          .anyMatch(enumExtractionResult -> enumExtractionResult.contains(sample))) {
+      if (!enumValues.isEmpty() && enumValues.contains(sample)) {
         continue;
       }
       if (sample instanceof ObjectNode) {
@@ -309,38 +780,120 @@ public final class JsonSchemaInferrer {
         .map(enumExtractionResult -> enumExtractionResultToSchema(enumExtractionResult, path))
         .forEach(anyOfs::add);
     // Objects
-    Optional.ofNullable(processObjects(objectNodes, path)).ifPresent(anyOfs::add);
+    if (!objectNodes.isEmpty()) {
+      final Object event = InferenceEvents.beginProcessSamples();
+      // The object schema is only the root schema if there is nothing else
+      final boolean deferProperties = schemaWriter != null && anyOfs.isEmpty()
+          && arrayNodes.isEmpty() && valueNodes.isEmpty();
+      Optional.ofNullable(processObjects(objectNodes, path, budgetTracker,
+          deferProperties ? schemaWriter : null)).ifPresent(anyOfs::add);
+      InferenceEvents.commitProcessSamples(event, Consts.Types.OBJECT, path, objectNodes.size());
+    }
     // Arrays
-    Optional.ofNullable(processArrays(arrayNodes, path)).ifPresent(anyOfs::add);
+    if (!arrayNodes.isEmpty()) {
+      final Object event = InferenceEvents.beginProcessSamples();
+      Optional.ofNullable(processArrays(arrayNodes, path, budgetTracker)).ifPresent(anyOfs::add);
+      InferenceEvents.commitProcessSamples(event, Consts.Types.ARRAY, path, arrayNodes.size());
+    }
     // Primitives
-    anyOfs.addAll(processPrimitives(valueNodes, path));
+    if (!valueNodes.isEmpty()) {
+      final Object event = InferenceEvents.beginProcessSamples();
+      anyOfs.addAll(processPrimitives(valueNodes, path));
+      InferenceEvents.commitProcessSamples(event, PRIMITIVE, path, valueNodes.size());
+    }
     postProcessAnyOfs(anyOfs);
+    reportPathInferred(path, objectNodes.size(), arrayNodes.size(), valueNodes.size(),
+        processedSamples.size() - objectNodes.size() - arrayNodes.size() - valueNodes.size(),
+        anyOfs.size());
     return Collections.unmodifiableSet(anyOfs);
   }
 
-  private void postProcessAnyOfs(@Nonnull Collection<ObjectNode> anyOfs) {
+  /**
+   * @return The samples for the {@link EnumExtractor}, which are an evenly spaced subset of the
+   * given samples if the number of samples per path is limited
+   */
+  @Nonnull
+  private Collection<? extends JsonNode> getEnumExtractionSamples(
+      @Nonnull Collection<? extends JsonNode> processedSamples) {
+    if (maxSamplesPerPath == 0 || processedSamples.size() <= maxSamplesPerPath) {
+      return processedSamples;
+    }
+    final List<? extends JsonNode> sampleList = processedSamples instanceof List
+        ? (List<? extends JsonNode>) processedSamples : new ArrayList<>(processedSamples);
+    return Collections.unmodifiableList(stratifiedSample(sampleList, maxSamplesPerPath));
+  }
+
+  @Nonnull
+  private static Set<JsonNode> getAllEnumValues(
+      @Nonnull Collection<Collection<? extends JsonNode>> enumExtractionResults) {
+    switch (enumExtractionResults.size()) {
+      case 0:
+        return Collections.emptySet();
+      case 1: {
+        final Collection<? extends JsonNode> enumExtractionResult =
+            enumExtractionResults.iterator().next();
+        if (enumExtractionResult instanceof HashSet) {
+          // No need to copy, since HashSets are already indexed
+          return Collections.unmodifiableSet((Set<? extends JsonNode>) enumExtractionResult);
+        }
+        return new HashSet<>(enumExtractionResult);
+      }
+      default: {
+        final Set<JsonNode> enumValues = new HashSet<>();
+        enumExtractionResults.forEach(enumValues::addAll);
+        return enumValues;
+      }
+    }
+  }
+
+  void postProcessAnyOfs(@Nonnull Collection<ObjectNode> anyOfs) {
     // Combine all the "simple" anyOfs, i.e. anyOfs that only have the "type" field
-    final Set<String> simpleTypes = new HashSet<>();
-    final Collection<ObjectNode> simpleAnyOfs = new ArrayList<>();
+    int simpleAnyOfCount = 0;
     for (ObjectNode anyOf : anyOfs) {
-      final Set<String> anyOfSchemaFieldNames =
-          stream(anyOf.fieldNames()).collect(Collectors.toSet());
-      if (anyOfSchemaFieldNames.equals(Consts.Fields.SINGLETON_TYPE)) {
-        simpleAnyOfs.add(anyOf);
-        simpleTypes.add(anyOf.path(Consts.Fields.TYPE).textValue());
+      if (isSimpleAnyOf(anyOf)) {
+        simpleAnyOfCount++;
       }
     }
     // Combine all the simple types into an array
-    if (simpleAnyOfs.size() <= 1) {
+    if (simpleAnyOfCount <= 1) {
       // If we only have 1 simple anyOf, there's nothing to do.
       return;
     }
-    anyOfs.removeAll(simpleAnyOfs);
+    final Set<String> simpleTypes = new HashSet<>();
+    // Remove the simple anyOfs through the iterator, so the anyOfs are not hashed again
+    anyOfs.removeIf(anyOf -> {
+      if (!isSimpleAnyOf(anyOf)) {
+        return false;
+      }
+      simpleTypes.add(anyOf.path(Consts.Fields.TYPE).textValue());
+      return true;
+    });
     final ObjectNode combinedSimpleAnyOf = newObject();
     combinedSimpleAnyOf.set(Consts.Fields.TYPE, stringColToArrayDistinct(simpleTypes));
     anyOfs.add(combinedSimpleAnyOf);
   }
 
+  /**
+   * @return Whether the given anyOf only has the "type" field, which is a constant time check
+   */
+  private static boolean isSimpleAnyOf(@Nonnull ObjectNode anyOf) {
+    return anyOf.size() == 1 && anyOf.has(Consts.Fields.TYPE);
+  }
+
+  @Nonnull
+  IntegerTypePreference getIntegerTypePreference() {
+    return integerTypePreference;
+  }
+
+  @Nullable
+  InferenceListener getInferenceListener() {
+    return inferenceListener;
+  }
+
+  boolean arePropertiesIndependent() {
+    return propertiesIndependent;
+  }
+
   @Nonnull
   @VisibleForTesting
   String inferPrimitiveType(@Nonnull JsonNode sample, boolean allNumbersAreIntegers) {
@@ -370,20 +923,32 @@ public final class JsonSchemaInferrer {
         type.getClass().getSimpleName(), type, sample));
   }
 
-  private boolean isInteger(@Nonnull JsonNode sample) {
+  boolean isInteger(@Nonnull JsonNode sample) {
+    // Skip allocating the input for the built-in criteria
+    if (integerTypeCriterion == IntegerTypeCriteria.nonFloatingPoint()) {
+      return sample.isIntegralNumber();
+    } else if (integerTypeCriterion == IntegerTypeCriteria.mathematicalInteger()) {
+      return isMathematicalIntegerNode(sample);
+    }
     final IntegerTypeCriterionInput input = new IntegerTypeCriterionInput(sample, specVersion);
     return integerTypeCriterion.isInteger(input);
   }
 
-  private Collection<Collection<? extends JsonNode>> getEnumExtractionResults(
-      @Nonnull Collection<? extends JsonNode> samples, @Nonnull String path) {
+  Collection<Collection<? extends JsonNode>> getEnumExtractionResults(
+      @Nonnull Collection<? extends JsonNode> samples, @Nonnull JsonPath path) {
     final EnumExtractorInput input = new EnumExtractorInput(samples, specVersion, path);
+    final Object event = InferenceEvents.beginEnumExtraction();
+    final long startNanos = inferenceListener == null ? 0 : System.nanoTime();
     final Collection<Collection<? extends JsonNode>> enumExtractionResults =
         enumExtractor.extractEnums(input);
+    if (inferenceListener != null) {
+      reportComponentCalled(InferenceComponent.ENUM_EXTRACTOR, path, startNanos);
+    }
+    InferenceEvents.commitEnumExtraction(event, path, samples.size());
     return Objects.requireNonNull(enumExtractionResults);
   }
 
-  private void handleDescriptionGeneration(@Nonnull ObjectNode schema, @Nullable String fieldName) {
+  void handleDescriptionGeneration(@Nonnull ObjectNode schema, @Nullable String fieldName) {
     final TitleDescriptionGeneratorInput input =
         new TitleDescriptionGeneratorInput(fieldName, specVersion);
     final String title = titleDescriptionGenerator.generateTitle(input);
@@ -401,17 +966,54 @@ public final class JsonSchemaInferrer {
   }
 
   @Nullable
-  private String inferFormat(@Nonnull JsonNode sample, @Nonnull String path) {
+  String inferFormat(@Nonnull JsonNode sample, @Nonnull JsonPath path) {
+    final String textValue = sample.textValue();
+    if (formatCache != null && textValue != null) {
+      return formatCache.get(path, textValue, () -> doInferFormat(sample, path));
+    }
+    return doInferFormat(sample, path);
+  }
+
+  @Nullable
+  private String doInferFormat(@Nonnull JsonNode sample, @Nonnull JsonPath path) {
     final FormatInferrerInput input = new FormatInferrerInput(sample, specVersion, path);
-    return formatInferrer.inferFormat(input);
+    if (inferenceListener == null) {
+      return input.meetsPreconditionsOf(formatInferrer) ? formatInferrer.inferFormat(input) : null;
+    }
+    final long startNanos = System.nanoTime();
+    final String format =
+        input.meetsPreconditionsOf(formatInferrer) ? formatInferrer.inferFormat(input) : null;
+    reportComponentCalled(InferenceComponent.FORMAT_INFERRER, path, startNanos);
+    return format;
   }
 
   private void processGenericSchemaFeature(@Nonnull ObjectNode schema,
       @Nonnull Collection<? extends JsonNode> samples, @Nullable String type,
-      @Nonnull String path) {
-    final GenericSchemaFeatureInput input =
-        new GenericSchemaFeatureInput(schema, samples, type, specVersion, path);
-    final ObjectNode featureResult = genericSchemaFeature.getFeatureResult(input);
+      @Nonnull JsonPath path) {
+    processGenericSchemaFeature(schema, samples, null, type, path);
+  }
+
+  /**
+   * @param samplesSummary The summary of the samples, or null if it is to be computed from the
+   *                       samples
+   */
+  void processGenericSchemaFeature(@Nonnull ObjectNode schema,
+      @Nonnull Collection<? extends JsonNode> samples, @Nullable SamplesSummary samplesSummary,
+      @Nullable String type, @Nonnull JsonPath path) {
+    final GenericSchemaFeature genericSchemaFeature = genericSchemaFeaturesByType.get(type);
+    if (genericSchemaFeature == null) {
+      return;
+    }
+    final GenericSchemaFeatureInput input = new GenericSchemaFeatureInput(schema, samples,
+        samplesSummary, type, specVersion, path);
+    final ObjectNode featureResult;
+    if (inferenceListener == null) {
+      featureResult = genericSchemaFeature.getFeatureResult(input);
+    } else {
+      final long startNanos = System.nanoTime();
+      featureResult = genericSchemaFeature.getFeatureResult(input);
+      reportComponentCalled(InferenceComponent.GENERIC_SCHEMA_FEATURE, path, startNanos);
+    }
     if (featureResult != null) {
       schema.setAll(featureResult);
     }
@@ -1,13 +1,20 @@
 package com.saasquatch.jsonschemainferrer;
 
 import com.saasquatch.jsonschemainferrer.annotations.Beta;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
@@ -36,6 +43,16 @@ public final class JsonSchemaInferrerBuilder {
   private Set<StringLengthFeature> stringLengthFeatures = Collections.emptySet();
   private Set<NumberRangeFeature> numberRangeFeatures = Collections.emptySet();
   private List<GenericSchemaFeature> genericSchemaFeatures = Collections.emptyList();
+  private ForkJoinPool forkJoinPool;
+  private int formatCacheSize = 0;
+  private int maxSamplesPerPath = 0;
+  private InferenceListener inferenceListener;
+  private Duration timeout;
+  private long maxNodeVisits = 0;
+  private int maxDepth = 0;
+  private BudgetExceededAction budgetExceededAction = BudgetExceededAction.FAIL;
+  private boolean shapeDeduplication = false;
+  private boolean schemaInterning = false;
 
   JsonSchemaInferrerBuilder() {}
 
@@ -231,6 +248,210 @@ public final class JsonSchemaInferrerBuilder {
     return this;
   }
 
+  /**
+   * Set the {@link ForkJoinPool} for inferring independent parts of the schema in parallel, like
+   * sibling properties and partitions of large sample collections. The result is identical to
+   * sequential inference, but all the configured components, including custom ones, may be called
+   * concurrently and in a different order, so they have to be thread safe. The built-in ones are.
+   * The default is null, which means inference happens on the calling thread only. The
+   * {@link ForkJoinPool} is not shut down by the inferrer.
+   */
+  @Beta
+  public JsonSchemaInferrerBuilder setForkJoinPool(@Nullable ForkJoinPool forkJoinPool) {
+    this.forkJoinPool = forkJoinPool;
+    return this;
+  }
+
+  /**
+   * Set the max number of {@link FormatInferrer} results to cache by JSON path and text value,
+   * which saves repeated format inference on fields with few distinct values. The cache is shared
+   * by all the inferences done by the built {@link JsonSchemaInferrer}, and the least recently used
+   * results are evicted first. Nothing is cached if any of the {@link FormatInferrer}s is not
+   * {@link FormatInferrer#isCacheable() cacheable}. The default is 0, which means no caching.
+   */
+  @Beta
+  public JsonSchemaInferrerBuilder setFormatCacheSize(@Nonnegative int formatCacheSize) {
+    //noinspection ConstantConditions
+    if (formatCacheSize < 0) {
+      throw new IllegalArgumentException("Invalid formatCacheSize");
+    }
+    this.formatCacheSize = formatCacheSize;
+    return this;
+  }
+
+  /**
+   * Set the max number of samples per JSON path that per-value work is done for, which bounds the
+   * cost of inference on paths with huge numbers of samples. Structural facts like types, required
+   * fields, lengths and ranges are still computed from all the samples, but formats are only
+   * inferred for an evenly spaced subset of the primitive samples at each path, and the
+   * {@link EnumExtractor}s only see an evenly spaced subset of the samples at each path. A
+   * primitive that is not sampled gets the format of its type if all the sampled primitives of its
+   * type have the same format, and no format otherwise. The result is therefore approximate, and
+   * {@link SchemaAccumulator}s, which sample the first primitives at each path, may come up with
+   * different formats than inferring from all the samples at once. Large sample collections are
+   * not split into partitions for parallel inference when this is set. The default is 0, which
+   * means no limit.
+   */
+  @Beta
+  public JsonSchemaInferrerBuilder setMaxSamplesPerPath(@Nonnegative int maxSamplesPerPath) {
+    //noinspection ConstantConditions
+    if (maxSamplesPerPath < 0) {
+      throw new IllegalArgumentException("Invalid maxSamplesPerPath");
+    }
+    this.maxSamplesPerPath = maxSamplesPerPath;
+    return this;
+  }
+
+  /**
+   * Set the {@link InferenceListener} for collecting metrics of inference, like the number of
+   * samples at each JSON path and the time spent in the configured components. The default is
+   * null, which means no metrics are collected.
+   */
+  @Beta
+  public JsonSchemaInferrerBuilder setInferenceListener(
+      @Nullable InferenceListener inferenceListener) {
+    this.inferenceListener = inferenceListener;
+    return this;
+  }
+
+  /**
+   * Set the max wall-clock time of a single inference from samples, which is checked before each
+   * JSON path is inferred. What happens when the timeout is exceeded is determined by
+   * {@link #setBudgetExceededAction(BudgetExceededAction)}. Large sample collections are not split
+   * into partitions for parallel inference when any budget is set. The default is null, which means
+   * no timeout.
+   */
+  @Beta
+  public JsonSchemaInferrerBuilder setTimeout(@Nullable Duration timeout) {
+    if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+      throw new IllegalArgumentException("Invalid timeout");
+    }
+    this.timeout = timeout;
+    return this;
+  }
+
+  /**
+   * Set the max number of JSON nodes a single inference from samples visits, counting each node
+   * once for the JSON path it is at. What happens when the limit is exceeded is determined by
+   * {@link #setBudgetExceededAction(BudgetExceededAction)}. The default is 0, which means no limit.
+   */
+  @Beta
+  public JsonSchemaInferrerBuilder setMaxNodeVisits(@Nonnegative long maxNodeVisits) {
+    //noinspection ConstantConditions
+    if (maxNodeVisits < 0) {
+      throw new IllegalArgumentException("Invalid maxNodeVisits");
+    }
+    this.maxNodeVisits = maxNodeVisits;
+    return this;
+  }
+
+  /**
+   * Set the max depth of the JSON paths a single inference from samples goes into, where the
+   * properties and the array items of the root are at depth 1. What happens to deeper paths is
+   * determined by {@link #setBudgetExceededAction(BudgetExceededAction)}. The default is 0, which
+   * means no limit.
+   */
+  @Beta
+  public JsonSchemaInferrerBuilder setMaxDepth(@Nonnegative int maxDepth) {
+    //noinspection ConstantConditions
+    if (maxDepth < 0) {
+      throw new IllegalArgumentException("Invalid maxDepth");
+    }
+    this.maxDepth = maxDepth;
+    return this;
+  }
+
+  /**
+   * Set what to do when an inference exceeds the budget set with {@link #setTimeout(Duration)},
+   * {@link #setMaxNodeVisits(long)} or {@link #setMaxDepth(int)}. The default is
+   * {@link BudgetExceededAction#FAIL}.
+   */
+  @Beta
+  public JsonSchemaInferrerBuilder setBudgetExceededAction(
+      @Nonnull BudgetExceededAction budgetExceededAction) {
+    this.budgetExceededAction = Objects.requireNonNull(budgetExceededAction);
+    return this;
+  }
+
+  /**
+   * Set whether samples with the same shape, i.e. the same field names, node types and nesting,
+   * should be inferred only once. Samples are deduplicated by shape at the root and at the items of
+   * arrays, which replaces repeated tree walks for payloads that mostly share a handful of shapes
+   * with a cheap structural hash of each sample. Deduplication only takes effect when the result
+   * schema cannot depend on anything but the shapes of the samples, which is when there are no
+   * {@link FormatInferrer}s, {@link EnumExtractor}s, {@link GenericSchemaFeature}s,
+   * {@link StringLengthFeature}s or {@link NumberRangeFeature}s, the {@link DefaultPolicy},
+   * {@link ExamplesPolicy} and {@link MultipleOfPolicy} are no-ops, the {@link RequiredPolicy} and
+   * {@link AdditionalPropertiesPolicy} are built-in, and the {@link IntegerTypeCriterion} is
+   * {@link IntegerTypeCriteria#nonFloatingPoint()}. The result schema is then the same as without
+   * deduplication, but an {@link InferenceListener} and the budgets only see the deduplicated
+   * samples. The default is false.
+   */
+  @Beta
+  public JsonSchemaInferrerBuilder setShapeDeduplication(boolean shapeDeduplication) {
+    this.shapeDeduplication = shapeDeduplication;
+    return this;
+  }
+
+  /**
+   * Set whether equal subschemas of a result schema should be shared as the same {@link JsonNode}
+   * instances, which cuts the memory held by schemas with lots of duplicated structure, like the
+   * schemas of large event catalogs. Subschemas are interned bottom up once the result schema is
+   * built, so each subschema is only hashed and compared by its direct children. Note that
+   * modifying a subschema of a result schema in place may then modify other subschemas as well.
+   * The root schema itself is never shared. The default is false.
+   */
+  @Beta
+  public JsonSchemaInferrerBuilder setSchemaInterning(boolean schemaInterning) {
+    this.schemaInterning = schemaInterning;
+    return this;
+  }
+
+  /**
+   * @return Whether the result schema only depends on the shapes of the samples with the current
+   * options
+   */
+  private boolean isShapeOnly() {
+    return formatInferrers.stream().allMatch(FormatInferrers.noOp()::equals)
+        && enumExtractors.stream().allMatch(EnumExtractors.noOp()::equals)
+        && genericSchemaFeatures.isEmpty() && stringLengthFeatures.isEmpty()
+        && numberRangeFeatures.isEmpty() && defaultPolicy == DefaultPolicies.noOp()
+        && examplesPolicy == ExamplesPolicies.noOp()
+        && multipleOfPolicy == MultipleOfPolicies.noOp()
+        && isBuiltIn(requiredPolicy, RequiredPolicies.noOp(), RequiredPolicies.commonFields(),
+            RequiredPolicies.nonNullCommonFields())
+        && isBuiltIn(additionalPropertiesPolicy, AdditionalPropertiesPolicies.noOp(),
+            AdditionalPropertiesPolicies.allowed(), AdditionalPropertiesPolicies.notAllowed(),
+            AdditionalPropertiesPolicies.existingTypes())
+        && integerTypeCriterion == IntegerTypeCriteria.nonFloatingPoint();
+  }
+
+  /**
+   * @return Whether the schemas of objects do not depend on the subschemas of their properties
+   * with the current options, so the property subschemas can be inferred after the object schemas
+   */
+  private boolean arePropertiesIndependent() {
+    return genericSchemaFeatures.isEmpty()
+        && isBuiltIn(additionalPropertiesPolicy, AdditionalPropertiesPolicies.noOp(),
+            AdditionalPropertiesPolicies.allowed(), AdditionalPropertiesPolicies.notAllowed())
+        && isBuiltIn(requiredPolicy, RequiredPolicies.noOp(), RequiredPolicies.commonFields(),
+            RequiredPolicies.nonNullCommonFields())
+        && isBuiltIn(defaultPolicy, DefaultPolicies.noOp(), DefaultPolicies.useFirstSamples(),
+            DefaultPolicies.useLastSamples())
+        && (examplesPolicy == ExamplesPolicies.noOp()
+            || examplesPolicy instanceof FirstSamplesExamplesPolicy)
+        && isBuiltIn(multipleOfPolicy, MultipleOfPolicies.noOp(), MultipleOfPolicies.gcd());
+  }
+
+  @Nullable
+  private InferenceBudget getInferenceBudget() {
+    if (timeout == null && maxNodeVisits == 0 && maxDepth == 0) {
+      return null;
+    }
+    return new InferenceBudget(timeout == null ? 0 : timeout.toNanos(), maxNodeVisits, maxDepth,
+        budgetExceededAction);
+  }
+
   @Nonnull
   private EnumExtractor getCombinedEnumExtractor() {
     return EnumExtractors.chained(enumExtractors.toArray(new EnumExtractor[0]));
@@ -241,8 +462,13 @@ public final class JsonSchemaInferrerBuilder {
     return FormatInferrers.chained(formatInferrers.toArray(new FormatInferrer[0]));
   }
 
+  /**
+   * Compile the {@link GenericSchemaFeature}s into a table keyed by schema types, so only the
+   * applicable features are called for each schema. The null key is for schemas without a type.
+   * Types with no applicable features are absent from the table.
+   */
   @Nonnull
-  private GenericSchemaFeature getCombinedGenericSchemaFeature() {
+  private Map<String, GenericSchemaFeature> getGenericSchemaFeaturesByType() {
     final List<GenericSchemaFeature> features = new ArrayList<>();
     if (additionalPropertiesPolicy != AdditionalPropertiesPolicies.noOp()) {
       features.add(additionalPropertiesPolicy);
@@ -264,7 +490,81 @@ public final class JsonSchemaInferrerBuilder {
     features.addAll(stringLengthFeatures);
     features.addAll(numberRangeFeatures);
     features.addAll(genericSchemaFeatures);
-    return GenericSchemaFeatures.chained(features.toArray(new GenericSchemaFeature[0]));
+    final Map<String, GenericSchemaFeature> featuresByType = new HashMap<>();
+    for (String type : Consts.Types.ALL_TYPES) {
+      putChainedFeatures(featuresByType, type, features);
+    }
+    putChainedFeatures(featuresByType, null, features);
+    return Collections.unmodifiableMap(featuresByType);
+  }
+
+  private static void putChainedFeatures(@Nonnull Map<String, GenericSchemaFeature> featuresByType,
+      @Nullable String type, @Nonnull List<GenericSchemaFeature> features) {
+    final List<GenericSchemaFeature> applicableFeatures = new ArrayList<>();
+    for (GenericSchemaFeature feature : features) {
+      final Set<String> applicableTypes = feature.getApplicableTypes();
+      if (applicableTypes == null || type != null && applicableTypes.contains(type)) {
+        applicableFeatures.add(feature);
+      }
+    }
+    if (!applicableFeatures.isEmpty()) {
+      featuresByType.put(type, GenericSchemaFeatures.chained(
+          applicableFeatures.toArray(new GenericSchemaFeature[0])));
+    }
+  }
+
+  /**
+   * @return The {@link SummaryOptions} for summarizing samples without retaining them, or null if
+   * any of the configured components is not a built-in one that works with summaries.
+   */
+  @Nullable
+  private SummaryOptions getSummaryOptions() {
+    if (!genericSchemaFeatures.isEmpty()) {
+      return null;
+    }
+    if (!isBuiltIn(additionalPropertiesPolicy, AdditionalPropertiesPolicies.noOp(),
+        AdditionalPropertiesPolicies.allowed(), AdditionalPropertiesPolicies.notAllowed(),
+        AdditionalPropertiesPolicies.existingTypes())) {
+      return null;
+    }
+    if (!isBuiltIn(requiredPolicy, RequiredPolicies.noOp(), RequiredPolicies.commonFields(),
+        RequiredPolicies.nonNullCommonFields())) {
+      return null;
+    }
+    if (!isBuiltIn(defaultPolicy, DefaultPolicies.noOp(), DefaultPolicies.useFirstSamples(),
+        DefaultPolicies.useLastSamples())) {
+      return null;
+    }
+    if (!isBuiltIn(multipleOfPolicy, MultipleOfPolicies.noOp(), MultipleOfPolicies.gcd())) {
+      return null;
+    }
+    final int distinctSamplesLimit;
+    if (examplesPolicy instanceof FirstSamplesExamplesPolicy) {
+      distinctSamplesLimit = ((FirstSamplesExamplesPolicy) examplesPolicy).getLimit();
+    } else if (examplesPolicy == ExamplesPolicies.noOp()) {
+      distinctSamplesLimit = 0;
+    } else {
+      return null;
+    }
+    final List<ValidEnumExtractor<?>> validEnumExtractors = new ArrayList<>();
+    for (EnumExtractor enumExtractor : enumExtractors) {
+      if (enumExtractor instanceof ValidEnumExtractor) {
+        validEnumExtractors.add((ValidEnumExtractor<?>) enumExtractor);
+      } else if (enumExtractor != EnumExtractors.noOp()) {
+        return null;
+      }
+    }
+    return new SummaryOptions(distinctSamplesLimit, multipleOfPolicy == MultipleOfPolicies.gcd(),
+        requiredPolicy != RequiredPolicies.noOp(), !stringLengthFeatures.isEmpty(),
+        validEnumExtractors, maxSamplesPerPath);
+  }
+
+  /**
+   * Built-in policies are singletons, so identity checks are good enough here.
+   */
+  @SafeVarargs
+  private static <T> boolean isBuiltIn(@Nonnull T policy, @Nonnull T... builtIns) {
+    return Arrays.asList(builtIns).contains(policy);
   }
 
   /**
@@ -272,9 +572,14 @@ public final class JsonSchemaInferrerBuilder {
    * @throws IllegalArgumentException if the spec version and features don't match up
    */
   public JsonSchemaInferrer build() {
+    final FormatInferrer formatInferrer = getCombinedFormatInferrer();
+    final FormatCache formatCache = formatCacheSize > 0 && formatInferrer.isCacheable()
+        ? new FormatCache(formatCacheSize) : null;
     return new JsonSchemaInferrer(specVersion, integerTypePreference, integerTypeCriterion,
-        getCombinedEnumExtractor(), titleDescriptionGenerator, getCombinedFormatInferrer(),
-        getCombinedGenericSchemaFeature());
+        getCombinedEnumExtractor(), titleDescriptionGenerator, formatInferrer, formatCache,
+        getGenericSchemaFeaturesByType(), getSummaryOptions(), forkJoinPool, maxSamplesPerPath,
+        inferenceListener, getInferenceBudget(), shapeDeduplication && isShapeOnly(),
+        schemaInterning, arePropertiesIndependent());
   }
 
 }
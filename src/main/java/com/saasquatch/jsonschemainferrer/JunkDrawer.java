@@ -1,5 +1,11 @@
 package com.saasquatch.jsonschemainferrer;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.BigIntegerNode;
@@ -11,14 +17,18 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.POJONode;
 import com.fasterxml.jackson.databind.node.TextNode;
 import com.fasterxml.jackson.databind.node.ValueNode;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
@@ -37,6 +47,12 @@ import javax.annotation.Nullable;
  */
 final class JunkDrawer {
 
+  // Leave closing the inputs and outputs to the caller
+  static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+      .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+      .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+      .build();
+
   private JunkDrawer() {}
 
   /**
@@ -151,23 +167,24 @@ final class JunkDrawer {
   }
 
   /**
-   * Get all the unique field names across multiple {@link ObjectNode}s
-   */
-  static Set<String> getAllFieldNames(@Nonnull Iterable<? extends JsonNode> objectNodes) {
-    return stream(objectNodes)
-        .flatMap(j -> stream(j.fieldNames()))
-        .filter(Objects::nonNull)
-        .collect(Collectors.toCollection(LinkedHashSet::new));
-  }
-
-  /**
-   * Get all the unique values for a field name across multiple {@link ObjectNode}s
+   * Group the values of multiple {@link ObjectNode}s by field name in a single pass. The field names
+   * are in the order they are first encountered, and the values of each field are in the order of
+   * the {@link ObjectNode}s.
    */
-  static Stream<JsonNode> getAllValuesForFieldName(
-      @Nonnull Iterable<? extends JsonNode> objectNodes, @Nonnull String fieldName) {
-    return stream(objectNodes)
-        .map(j -> j.get(fieldName))
-        .filter(Objects::nonNull);
+  @Nonnull
+  static Map<String, List<JsonNode>> groupValuesByFieldName(
+      @Nonnull Iterable<? extends JsonNode> objectNodes) {
+    final Map<String, List<JsonNode>> result = new LinkedHashMap<>();
+    for (JsonNode objectNode : objectNodes) {
+      for (Iterator<Map.Entry<String, JsonNode>> iter = objectNode.fields(); iter.hasNext(); ) {
+        final Map.Entry<String, JsonNode> field = iter.next();
+        if (field.getKey() == null || field.getValue() == null) {
+          continue;
+        }
+        result.computeIfAbsent(field.getKey(), k -> new ArrayList<>()).add(field.getValue());
+      }
+    }
+    return result;
   }
 
   /**
@@ -195,6 +212,31 @@ final class JunkDrawer {
         : Collections.unmodifiableSet(commonFieldNames);
   }
 
+  /**
+   * @return The index of the {@code i}th element of an evenly spaced sample of the given size taken
+   * from a list of the given size, which is {@code floor(i * listSize / sampleSize)}
+   */
+  static int getStratifiedSampleIndex(int i, int listSize, int sampleSize) {
+    return (int) ((long) i * listSize / sampleSize);
+  }
+
+  /**
+   * @return An evenly spaced sample of the given size taken from the given list, or the list itself
+   * if it is no larger than the sample size
+   */
+  @Nonnull
+  static <E> List<E> stratifiedSample(@Nonnull List<E> list, int sampleSize) {
+    final int listSize = list.size();
+    if (listSize <= sampleSize) {
+      return list;
+    }
+    final List<E> sample = new ArrayList<>(sampleSize);
+    for (int i = 0; i < sampleSize; i++) {
+      sample.add(list.get(getStratifiedSampleIndex(i, listSize, sampleSize)));
+    }
+    return sample;
+  }
+
   /**
    * Get the length of the Base64 String for the given number of bytes
    */
@@ -217,7 +259,10 @@ final class JunkDrawer {
     if (textValue == null) {
       return -1;
     }
-    // DO NOT use String.length()
+    /*
+     * DO NOT use String.length(). Note that this does not scan Latin-1 strings on Java 9+, where
+     * they are stored compactly and their lengths are known to be their code point counts.
+     */
     return textValue.codePointCount(0, textValue.length());
   }
 
@@ -292,21 +337,171 @@ final class JunkDrawer {
    * href="https://www.freeformatter.com/json-escape.html">here</a>.
    */
   static String escapeSingleQuoteString(@Nonnull String s) {
-    return s.replace("\\", "\\\\")
-        .replace("\b", "\\b")
-        .replace("\f", "\\f")
-        .replace("\n", "\\n")
-        .replace("\r", "\\r")
-        .replace("\t", "\\t")
-        .replace("'", "\\'");
+    int i = 0;
+    while (i < s.length() && getSingleQuoteEscape(s.charAt(i)) == null) {
+      i++;
+    }
+    if (i == s.length()) {
+      return s;
+    }
+    final StringBuilder sb = new StringBuilder(s.length() + 8).append(s, 0, i);
+    for (; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      final String escape = getSingleQuoteEscape(c);
+      if (escape == null) {
+        sb.append(c);
+      } else {
+        sb.append(escape);
+      }
+    }
+    return sb.toString();
+  }
+
+  @Nullable
+  private static String getSingleQuoteEscape(char c) {
+    switch (c) {
+      case '\\':
+        return "\\\\";
+      case '\b':
+        return "\\b";
+      case '\f':
+        return "\\f";
+      case '\n':
+        return "\\n";
+      case '\r':
+        return "\\r";
+      case '\t':
+        return "\\t";
+      case '\'':
+        return "\\'";
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Read the primitive value the given {@link JsonParser} is currently pointing at, in the same
+   * way {@link com.fasterxml.jackson.databind.ObjectMapper#readTree} would by default.
+   */
+  @Nonnull
+  static ValueNode readValueNode(@Nonnull JsonParser parser) throws IOException {
+    final JsonToken token = parser.currentToken();
+    if (token == null) {
+      throw new IllegalStateException("No current token");
+    }
+    final JsonNodeFactory jnf = JsonNodeFactory.instance;
+    switch (token) {
+      case VALUE_STRING:
+        return jnf.textNode(parser.getText());
+      case VALUE_NUMBER_INT:
+        switch (parser.getNumberType()) {
+          case INT:
+            return jnf.numberNode(parser.getIntValue());
+          case LONG:
+            return jnf.numberNode(parser.getLongValue());
+          default:
+            return jnf.numberNode(parser.getBigIntegerValue());
+        }
+      case VALUE_NUMBER_FLOAT:
+        switch (parser.getNumberType()) {
+          case BIG_DECIMAL:
+            return jnf.numberNode(parser.getDecimalValue());
+          case FLOAT:
+            return jnf.numberNode(parser.getFloatValue());
+          default:
+            return jnf.numberNode(parser.getDoubleValue());
+        }
+      case VALUE_TRUE:
+      case VALUE_FALSE:
+        return jnf.booleanNode(token == JsonToken.VALUE_TRUE);
+      case VALUE_NULL:
+        return jnf.nullNode();
+      case VALUE_EMBEDDED_OBJECT: {
+        final Object embeddedObject = parser.getEmbeddedObject();
+        if (embeddedObject == null) {
+          return jnf.nullNode();
+        } else if (embeddedObject instanceof byte[]) {
+          return jnf.binaryNode((byte[]) embeddedObject);
+        }
+        return jnf.pojoNode(embeddedObject);
+      }
+      default:
+        throw new IllegalArgumentException(format("Unexpected token[%s]", token));
+    }
   }
 
-  static String appendObjectJsonPath(@Nonnull String path, @Nonnull String fieldName) {
-    return path + "['" + escapeSingleQuoteString(fieldName) + "']";
+  /**
+   * Read the JSON value the given {@link JsonParser} is currently pointing at into a
+   * {@link JsonNode}. After this method returns, the parser points at the last token of the value.
+   */
+  @Nonnull
+  static JsonNode readTree(@Nonnull JsonParser parser) throws IOException {
+    final JsonToken token = parser.currentToken();
+    if (token == JsonToken.START_OBJECT) {
+      final ObjectNode objectNode = newObject();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String fieldName = parser.currentName();
+        parser.nextToken();
+        objectNode.set(fieldName, readTree(parser));
+      }
+      return objectNode;
+    } else if (token == JsonToken.START_ARRAY) {
+      final ArrayNode arrayNode = newArray();
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        arrayNode.add(readTree(parser));
+      }
+      return arrayNode;
+    }
+    return readValueNode(parser);
   }
 
-  static String appendArrayStarJsonPath(@Nonnull String path) {
-    return path + "[*]";
+  /**
+   * Write the given {@link JsonNode} with the given {@link JsonGenerator} in the same way
+   * {@link com.fasterxml.jackson.databind.ObjectMapper#writeTree} would by default. Unlike
+   * {@link JsonGenerator#writeTree}, this does not need an
+   * {@link com.fasterxml.jackson.core.ObjectCodec}.
+   *
+   * @throws IllegalArgumentException if the node contains POJOs
+   */
+  static void writeTree(@Nonnull JsonGenerator generator, @Nonnull JsonNode node)
+      throws IOException {
+    if (isNull(node)) {
+      generator.writeNull();
+    } else if (node.isObject()) {
+      generator.writeStartObject();
+      for (Iterator<Map.Entry<String, JsonNode>> iter = node.fields(); iter.hasNext(); ) {
+        final Map.Entry<String, JsonNode> field = iter.next();
+        generator.writeFieldName(field.getKey());
+        writeTree(generator, field.getValue());
+      }
+      generator.writeEndObject();
+    } else if (node.isArray()) {
+      generator.writeStartArray();
+      for (JsonNode item : node) {
+        writeTree(generator, item);
+      }
+      generator.writeEndArray();
+    } else if (node.isTextual()) {
+      generator.writeString(node.textValue());
+    } else if (node.isBoolean()) {
+      generator.writeBoolean(node.booleanValue());
+    } else if (node.isBinary()) {
+      generator.writeBinary(node.binaryValue());
+    } else if (node.isShort() || node.isInt()) {
+      generator.writeNumber(node.intValue());
+    } else if (node.isLong()) {
+      generator.writeNumber(node.longValue());
+    } else if (node.isBigInteger()) {
+      generator.writeNumber(node.bigIntegerValue());
+    } else if (node.isFloat()) {
+      generator.writeNumber(node.floatValue());
+    } else if (node.isDouble()) {
+      generator.writeNumber(node.doubleValue());
+    } else if (node.isBigDecimal()) {
+      generator.writeNumber(node.decimalValue());
+    } else {
+      throw new IllegalArgumentException(node.getClass().getSimpleName() + " not supported");
+    }
   }
 
 }
@@ -1,6 +1,7 @@
 package com.saasquatch.jsonschemainferrer;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.numberNode;
+
 import java.math.BigInteger;
 
 /**
@@ -26,20 +27,11 @@ public final class MultipleOfPolicies {
    */
   public static MultipleOfPolicy gcd() {
     return input -> {
-      // Only proceed if all numbers are integers
-      final boolean allNumbersAreMathematicalIntegers = input.getSamples().stream()
-          .filter(JsonNode::isNumber)
-          .allMatch(JunkDrawer::isMathematicalIntegerNode);
-      if (!allNumbersAreMathematicalIntegers) {
+      final BigInteger gcd = input.getSamplesSummary().getIntegersGcd();
+      if (gcd == null || BigInteger.ZERO.compareTo(gcd) == 0) {
         return null;
       }
-      return input.getSamples().stream()
-          .filter(JsonNode::isNumber)
-          .map(JsonNode::bigIntegerValue)
-          .reduce(BigInteger::gcd)
-          .filter(gcd -> BigInteger.ZERO.compareTo(gcd) != 0)
-          .map(JunkDrawer::numberNode)
-          .orElse(null);
+      return numberNode(gcd);
     };
   }
 
@@ -4,7 +4,7 @@ import static com.saasquatch.jsonschemainferrer.JunkDrawer.newObject;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import java.util.Comparator;
+import java.util.Set;
 import javax.annotation.Nonnull;
 
 /**
@@ -23,15 +23,13 @@ public enum NumberRangeFeature implements GenericSchemaFeature {
       if (!Consts.Types.NUMBER_TYPES.contains(input.getType())) {
         return null;
       }
-      return input.getSamples().stream()
-          .filter(JsonNode::isNumber)
-          .min(NUM_VALUE_COMPARATOR)
-          .map(minNode -> {
-            final ObjectNode result = newObject();
-            result.set(Consts.Fields.MINIMUM, minNode);
-            return result;
-          })
-          .orElse(null);
+      final JsonNode minNode = input.getSamplesSummary().getMinNumber();
+      if (minNode == null) {
+        return null;
+      }
+      final ObjectNode result = newObject();
+      result.set(Consts.Fields.MINIMUM, minNode);
+      return result;
     }
   },
 
@@ -44,20 +42,20 @@ public enum NumberRangeFeature implements GenericSchemaFeature {
       if (!Consts.Types.NUMBER_TYPES.contains(input.getType())) {
         return null;
       }
-      return input.getSamples().stream()
-          .filter(JsonNode::isNumber)
-          .max(NUM_VALUE_COMPARATOR)
-          .map(maxNode -> {
-            final ObjectNode result = newObject();
-            result.set(Consts.Fields.MAXIMUM, maxNode);
-            return result;
-          })
-          .orElse(null);
+      final JsonNode maxNode = input.getSamplesSummary().getMaxNumber();
+      if (maxNode == null) {
+        return null;
+      }
+      final ObjectNode result = newObject();
+      result.set(Consts.Fields.MAXIMUM, maxNode);
+      return result;
     }
   },
   ;
 
-  private static final Comparator<JsonNode> NUM_VALUE_COMPARATOR =
-      Comparator.comparing(JsonNode::decimalValue);
+  @Override
+  public Set<String> getApplicableTypes() {
+    return Consts.Types.NUMBER_TYPES;
+  }
 
 }
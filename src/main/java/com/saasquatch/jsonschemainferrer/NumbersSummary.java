@@ -0,0 +1,234 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.isMathematicalInteger;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.isTextualFloat;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readJsonNode;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readNullableBigInteger;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.writeJsonNode;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.writeNullableBigInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Summary of number samples that computes the minimum, the maximum, whether all the numbers are
+ * mathematical integers, and the GCD of the integers in a single pass. Comparisons and GCDs are
+ * done with primitive {@code long}s and {@code double}s when they are exact, and only fall back to
+ * {@link java.math.BigDecimal} and {@link BigInteger} when they are not. Not public.
+ *
+ * @author sli
+ * @see SamplesSummary
+ */
+@NotThreadSafe
+final class NumbersSummary {
+
+  // Doubles within this range represent whole numbers exactly
+  private static final double MAX_EXACT_DOUBLE = 0x1p53;
+  private static final long MAX_EXACT_LONG = 1L << 53;
+
+  private final boolean integersGcdTracked;
+  private JsonNode minNumber;
+  private JsonNode maxNumber;
+  private boolean allNumbersAreMathematicalIntegers = true;
+  // The GCD is in longGcd if hasLongGcd is true, and in bigGcd otherwise
+  private boolean hasLongGcd;
+  private long longGcd;
+  private BigInteger bigGcd;
+
+  NumbersSummary(boolean integersGcdTracked) {
+    this.integersGcdTracked = integersGcdTracked;
+  }
+
+  /**
+   * Keep track of a new number sample. NaN and infinity are ignored, since they are typed as
+   * strings and cannot be compared.
+   */
+  void add(@Nonnull JsonNode sample) {
+    if (!sample.isNumber() || isTextualFloat(sample)) {
+      return;
+    }
+    // Ties go to the earlier sample, which is consistent with Stream#min and Stream#max
+    if (minNumber == null || compareNumbers(sample, minNumber) < 0) {
+      minNumber = sample;
+    }
+    if (maxNumber == null || compareNumbers(sample, maxNumber) > 0) {
+      maxNumber = sample;
+    }
+    if (!integersGcdTracked || !allNumbersAreMathematicalIntegers) {
+      return;
+    }
+    if (sample.isIntegralNumber() && sample.canConvertToLong()) {
+      addInteger(sample.longValue());
+    } else if (sample.isIntegralNumber()) {
+      addInteger(sample.bigIntegerValue());
+    } else if (sample.isFloat() || sample.isDouble()) {
+      final double doubleValue = sample.doubleValue();
+      if (!isMathematicalInteger(doubleValue)) {
+        setNotAllIntegers();
+      } else if (Math.abs(doubleValue) <= MAX_EXACT_DOUBLE) {
+        addInteger((long) doubleValue);
+      } else {
+        addInteger(sample.bigIntegerValue());
+      }
+    } else if (isMathematicalInteger(sample.decimalValue())) {
+      addInteger(sample.bigIntegerValue());
+    } else {
+      setNotAllIntegers();
+    }
+  }
+
+  private void setNotAllIntegers() {
+    allNumbersAreMathematicalIntegers = false;
+    hasLongGcd = false;
+    bigGcd = null;
+  }
+
+  private void addInteger(long integer) {
+    if (hasLongGcd) {
+      // The absolute value of Long.MIN_VALUE does not fit in a long
+      if (longGcd != Long.MIN_VALUE && integer != Long.MIN_VALUE) {
+        longGcd = gcd(Math.abs(longGcd), Math.abs(integer));
+        return;
+      }
+    } else if (bigGcd == null) {
+      // The first integer is kept as is, which is consistent with Stream#reduce
+      hasLongGcd = true;
+      longGcd = integer;
+      return;
+    }
+    addInteger(BigInteger.valueOf(integer));
+  }
+
+  private void addInteger(@Nonnull BigInteger integer) {
+    if (hasLongGcd) {
+      hasLongGcd = false;
+      bigGcd = BigInteger.valueOf(longGcd).gcd(integer);
+    } else {
+      bigGcd = bigGcd == null ? integer : bigGcd.gcd(integer);
+    }
+  }
+
+  private static long gcd(long a, long b) {
+    while (b != 0) {
+      final long t = a % b;
+      a = b;
+      b = t;
+    }
+    return a;
+  }
+
+  /**
+   * Merge the other summary into this one, as if the samples of the other summary were added to
+   * this one after its own samples
+   */
+  void merge(@Nonnull NumbersSummary other) {
+    if (other.minNumber != null && (minNumber == null
+        || compareNumbers(other.minNumber, minNumber) < 0)) {
+      minNumber = other.minNumber;
+    }
+    if (other.maxNumber != null && (maxNumber == null
+        || compareNumbers(other.maxNumber, maxNumber) > 0)) {
+      maxNumber = other.maxNumber;
+    }
+    if (allNumbersAreMathematicalIntegers) {
+      if (!other.allNumbersAreMathematicalIntegers) {
+        setNotAllIntegers();
+      } else if (other.hasLongGcd) {
+        addInteger(other.longGcd);
+      } else if (other.bigGcd != null) {
+        addInteger(other.bigGcd);
+      }
+    }
+  }
+
+  /**
+   * @return The minimum number sample, or null if there are no numbers
+   */
+  @Nullable
+  JsonNode getMinNumber() {
+    return minNumber;
+  }
+
+  /**
+   * @return The maximum number sample, or null if there are no numbers
+   */
+  @Nullable
+  JsonNode getMaxNumber() {
+    return maxNumber;
+  }
+
+  /**
+   * @return The GCD of the numbers, or null if there are no numbers or if any of the numbers is
+   * not a mathematical integer
+   */
+  @Nullable
+  BigInteger getIntegersGcd() {
+    return hasLongGcd ? BigInteger.valueOf(longGcd) : bigGcd;
+  }
+
+  /**
+   * Write this summary with {@link SummaryCodec}
+   */
+  void writeTo(@Nonnull DataOutput out) throws IOException {
+    writeJsonNode(out, minNumber);
+    writeJsonNode(out, maxNumber);
+    out.writeBoolean(allNumbersAreMathematicalIntegers);
+    writeNullableBigInteger(out, getIntegersGcd());
+  }
+
+  /**
+   * Read a summary written by {@link #writeTo(DataOutput)}
+   */
+  @Nonnull
+  static NumbersSummary readFrom(@Nonnull DataInput in, boolean integersGcdTracked)
+      throws IOException {
+    final NumbersSummary summary = new NumbersSummary(integersGcdTracked);
+    summary.minNumber = readJsonNode(in);
+    summary.maxNumber = readJsonNode(in);
+    summary.allNumbersAreMathematicalIntegers = in.readBoolean();
+    summary.bigGcd = readNullableBigInteger(in);
+    return summary;
+  }
+
+  /**
+   * Compare the values of two number nodes, which is equivalent to comparing their
+   * {@link JsonNode#decimalValue()}s.
+   */
+  static int compareNumbers(@Nonnull JsonNode a, @Nonnull JsonNode b) {
+    if (a.isIntegralNumber() && b.isIntegralNumber() && a.canConvertToLong()
+        && b.canConvertToLong()) {
+      return Long.compare(a.longValue(), b.longValue());
+    }
+    if (hasExactDoubleValue(a) && hasExactDoubleValue(b)) {
+      final double x = a.doubleValue();
+      final double y = b.doubleValue();
+      // Not using Double#compare, which orders -0.0 before 0.0
+      return x < y ? -1 : x > y ? 1 : 0;
+    }
+    return a.decimalValue().compareTo(b.decimalValue());
+  }
+
+  /**
+   * @return Whether comparing the {@link JsonNode#doubleValue()} of the given number node is
+   * equivalent to comparing its {@link JsonNode#decimalValue()}
+   */
+  private static boolean hasExactDoubleValue(@Nonnull JsonNode numberNode) {
+    if (numberNode.isFloat() || numberNode.isDouble()) {
+      final double doubleValue = numberNode.doubleValue();
+      return !Double.isNaN(doubleValue) && !Double.isInfinite(doubleValue);
+    }
+    if (numberNode.isIntegralNumber() && numberNode.canConvertToLong()) {
+      final long longValue = numberNode.longValue();
+      // Not comparing with MAX_EXACT_DOUBLE, which would convert the long to a double
+      return longValue >= -MAX_EXACT_LONG && longValue <= MAX_EXACT_LONG;
+    }
+    return false;
+  }
+
+}
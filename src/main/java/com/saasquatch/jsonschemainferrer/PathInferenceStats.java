@@ -0,0 +1,93 @@
+package com.saasquatch.jsonschemainferrer;
+
+import com.saasquatch.jsonschemainferrer.annotations.Beta;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Statistics of building the schema of a single JSON path
+ *
+ * @author sli
+ * @see InferenceListener#onPathInferred(PathInferenceStats)
+ */
+@Beta
+@Immutable
+public final class PathInferenceStats {
+
+  private final JsonPath path;
+  private final long objectCount;
+  private final long arrayCount;
+  private final long primitiveCount;
+  private final long enumValueCount;
+  private final int anyOfCount;
+
+  PathInferenceStats(@Nonnull JsonPath path, long objectCount, long arrayCount,
+      long primitiveCount, long enumValueCount, int anyOfCount) {
+    this.path = path;
+    this.objectCount = objectCount;
+    this.arrayCount = arrayCount;
+    this.primitiveCount = primitiveCount;
+    this.enumValueCount = enumValueCount;
+    this.anyOfCount = anyOfCount;
+  }
+
+  /**
+   * @return The JSON path. The algorithm for generating JSON path can be found at
+   * {@link JunkDrawer#escapeSingleQuoteString}.
+   */
+  @Nonnull
+  public String getPath() {
+    return path.toString();
+  }
+
+  /**
+   * @return The number of samples at the path, which is the sum of all the other counts
+   */
+  @Nonnegative
+  public long getSampleCount() {
+    return objectCount + arrayCount + primitiveCount + enumValueCount;
+  }
+
+  /**
+   * @return The number of object samples that are not extracted as enums
+   */
+  @Nonnegative
+  public long getObjectCount() {
+    return objectCount;
+  }
+
+  /**
+   * @return The number of array samples that are not extracted as enums
+   */
+  @Nonnegative
+  public long getArrayCount() {
+    return arrayCount;
+  }
+
+  /**
+   * @return The number of primitive samples that are not extracted as enums
+   */
+  @Nonnegative
+  public long getPrimitiveCount() {
+    return primitiveCount;
+  }
+
+  /**
+   * @return The number of samples extracted as enums
+   */
+  @Nonnegative
+  public long getEnumValueCount() {
+    return enumValueCount;
+  }
+
+  /**
+   * @return The number of {@code anyOf} schemas produced for the path, which is 1 if the schema of
+   * the path is not an {@code anyOf}
+   */
+  @Nonnegative
+  public int getAnyOfCount() {
+    return anyOfCount;
+  }
+
+}
@@ -0,0 +1,504 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.isNull;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.newObject;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.readValueNode;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readJsonNode;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readLength;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readNullableString;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readString;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readVarLong;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.writeJsonNode;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.writeNullableString;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.writeString;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.writeVarLong;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Summary of all the samples at a single JSON path, which is what a {@link SchemaAccumulator}
+ * keeps in place of the samples. The summaries of nested paths form a tree that mirrors the shape
+ * of the schema. Not public.
+ *
+ * @author sli
+ * @see SchemaAccumulator
+ */
+@NotThreadSafe
+final class PathSummary {
+
+  private final JsonSchemaInferrer inferrer;
+  private final SummaryOptions options;
+  private final JsonPath path;
+  // Distinct samples that are to be extracted as enums
+  private Set<JsonNode> enumSamples;
+  // The number of samples that are to be extracted as enums, including duplicates
+  private long enumSampleCount;
+  private SamplesSummary objectsSummary;
+  // Keyed by field names in the order they are first encountered
+  private Map<String, PathSummary> properties;
+  private SamplesSummary arraysSummary;
+  private PathSummary items;
+  /*
+   * One per [type, format] combo in the order they are first encountered. There are only a
+   * handful of combos, so the list is scanned linearly like PrimitivesSummaryMap, which avoids
+   * allocating a key for every sample.
+   */
+  private List<TypedSamplesSummary> primitivesSummaries;
+  /*
+   * Whether all the numbers in the samples are integers. Used for inferring number types. Only kept
+   * track of if the IntegerTypePreference depends on all the numbers.
+   */
+  private boolean allNumbersAreIntegers = true;
+  /*
+   * The number of primitive samples that formats have been inferred for, and their formats by
+   * type. Only kept track of if the number of samples per path is limited.
+   */
+  private long sampledPrimitivesCount;
+  private SampledFormats sampledFormats;
+
+  PathSummary(@Nonnull JsonSchemaInferrer inferrer, @Nonnull SummaryOptions options,
+      @Nonnull JsonPath path) {
+    this.inferrer = inferrer;
+    this.options = options;
+    this.path = path;
+  }
+
+  /**
+   * Keep track of a new sample
+   *
+   * @param sample A sample that has gone through {@link JsonSchemaInferrer#preProcessSample}
+   */
+  void addSample(@Nonnull JsonNode sample) {
+    if (options.isEnumValue(sample)) {
+      if (enumSamples == null) {
+        enumSamples = new LinkedHashSet<>();
+      }
+      enumSamples.add(sample);
+      enumSampleCount++;
+    } else if (sample.isObject()) {
+      addObject(sample);
+    } else if (sample.isArray()) {
+      addArray(sample);
+    } else {
+      addPrimitive(sample);
+    }
+  }
+
+  /**
+   * Keep track of a new sample straight from the tokens of the given {@link JsonParser}, so
+   * objects and arrays never have to be built. The parser should be pointing at the first token of
+   * the sample, and it will be pointing at the last token of the sample after this method returns.
+   * Note that if an object has duplicate field names, all of their values are kept track of.
+   */
+  void addSample(@Nonnull JsonParser parser) throws IOException {
+    final JsonToken token = parser.currentToken();
+    if (token == JsonToken.START_OBJECT) {
+      addObject(parser);
+    } else if (token == JsonToken.START_ARRAY) {
+      addArray(parser);
+    } else {
+      addSample(inferrer.preProcessSample(readValueNode(parser)));
+    }
+  }
+
+  private void addObject(@Nonnull JsonNode sample) {
+    initObjects();
+    objectsSummary.addSample(sample);
+    for (Iterator<Map.Entry<String, JsonNode>> iter = sample.fields(); iter.hasNext(); ) {
+      final Map.Entry<String, JsonNode> field = iter.next();
+      getProperty(field.getKey()).addSample(inferrer.preProcessSample(field.getValue()));
+    }
+  }
+
+  private void addObject(@Nonnull JsonParser parser) throws IOException {
+    initObjects();
+    final Map<String, Boolean> fieldNullness = new LinkedHashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String fieldName = parser.currentName();
+      final PathSummary property = getProperty(fieldName);
+      if (parser.nextToken().isStructStart()) {
+        fieldNullness.put(fieldName, false);
+        property.addSample(parser);
+      } else {
+        final JsonNode value = inferrer.preProcessSample(readValueNode(parser));
+        fieldNullness.put(fieldName, isNull(value));
+        property.addSample(value);
+      }
+    }
+    objectsSummary.addStreamedObject(fieldNullness);
+  }
+
+  private void initObjects() {
+    if (objectsSummary == null) {
+      objectsSummary = SamplesSummary.newAccumulated(options);
+      properties = new LinkedHashMap<>();
+    }
+  }
+
+  @Nonnull
+  private PathSummary getProperty(@Nonnull String fieldName) {
+    return properties.computeIfAbsent(fieldName,
+        k -> new PathSummary(inferrer, options, path.appendObject(k)));
+  }
+
+  private void addArray(@Nonnull JsonNode sample) {
+    initArrays();
+    arraysSummary.addSample(sample);
+    for (JsonNode item : sample) {
+      items.addSample(inferrer.preProcessSample(item));
+    }
+  }
+
+  private void addArray(@Nonnull JsonParser parser) throws IOException {
+    initArrays();
+    int size = 0;
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      items.addSample(parser);
+      size++;
+    }
+    arraysSummary.addStreamedArray(size);
+  }
+
+  private void initArrays() {
+    if (arraysSummary == null) {
+      arraysSummary = SamplesSummary.newAccumulated(options);
+      items = new PathSummary(inferrer, options, path.appendArrayStar());
+    }
+  }
+
+  private void addPrimitive(@Nonnull JsonNode sample) {
+    if (allNumbersAreIntegers && sample.isNumber()
+        && inferrer.getIntegerTypePreference().dependsOnAllNumbers()) {
+      allNumbersAreIntegers = inferrer.isInteger(sample);
+    }
+    /*
+     * Whether all the numbers are integers is not known yet, so numbers that are not integers on
+     * their own are typed as number for now.
+     */
+    final String type = inferrer.inferPrimitiveType(sample, false);
+    final String format = options.getMaxSamplesPerPath() == 0
+        ? inferrer.inferFormat(sample, path) : getSampledFormat(sample, type);
+    getPrimitivesSummary(type, format).addSample(sample);
+  }
+
+  /**
+   * @return The summary of the primitive samples with the given type and format, which is created
+   * if absent
+   */
+  @Nonnull
+  private SamplesSummary getPrimitivesSummary(@Nonnull String type, @Nullable String format) {
+    if (primitivesSummaries == null) {
+      primitivesSummaries = new ArrayList<>(4);
+    }
+    for (TypedSamplesSummary primitivesSummary : primitivesSummaries) {
+      if (primitivesSummary.type.equals(type)
+          && Objects.equals(primitivesSummary.format, format)) {
+        return primitivesSummary.summary;
+      }
+    }
+    final SamplesSummary summary = SamplesSummary.newAccumulated(options);
+    primitivesSummaries.add(new TypedSamplesSummary(type, format, summary));
+    return summary;
+  }
+
+  /**
+   * Infer the format of the given primitive sample if the first primitive samples have not used up
+   * the limit of samples per path, or if it is the first sample of its type. Otherwise the format
+   * comes from the sampled formats of its type.
+   */
+  @Nullable
+  private String getSampledFormat(@Nonnull JsonNode sample, @Nonnull String type) {
+    if (sampledFormats == null) {
+      sampledFormats = new SampledFormats();
+    }
+    if (sampledPrimitivesCount < options.getMaxSamplesPerPath()
+        || !sampledFormats.isSampled(type)) {
+      final String format = inferrer.inferFormat(sample, path);
+      sampledPrimitivesCount++;
+      sampledFormats.add(type, format);
+      return format;
+    }
+    return sampledFormats.getFormat(type);
+  }
+
+  /**
+   * Merge the other summary for the same path into this one, as if the samples of the other
+   * summary were added to this one after its own samples. The other summary is not modified.
+   */
+  void merge(@Nonnull PathSummary other) {
+    if (other.enumSamples != null) {
+      if (enumSamples == null) {
+        enumSamples = new LinkedHashSet<>();
+      }
+      enumSamples.addAll(other.enumSamples);
+    }
+    enumSampleCount += other.enumSampleCount;
+    if (other.objectsSummary != null) {
+      initObjects();
+      objectsSummary.merge(other.objectsSummary);
+      other.properties.forEach((fieldName, property) -> getProperty(fieldName).merge(property));
+    }
+    if (other.arraysSummary != null) {
+      initArrays();
+      arraysSummary.merge(other.arraysSummary);
+      items.merge(other.items);
+    }
+    if (other.primitivesSummaries != null) {
+      for (TypedSamplesSummary otherSummary : other.primitivesSummaries) {
+        getPrimitivesSummary(otherSummary.type, otherSummary.format).merge(otherSummary.summary);
+      }
+    }
+    allNumbersAreIntegers &= other.allNumbersAreIntegers;
+    sampledPrimitivesCount += other.sampledPrimitivesCount;
+    if (other.sampledFormats != null) {
+      if (sampledFormats == null) {
+        sampledFormats = new SampledFormats();
+      }
+      sampledFormats.merge(other.sampledFormats);
+    }
+  }
+
+  /**
+   * Write this summary and the summaries of all the nested paths with {@link SummaryCodec}
+   */
+  void writeTo(@Nonnull DataOutput out) throws IOException {
+    writeVarLong(out, enumSamples == null ? 0 : enumSamples.size());
+    if (enumSamples != null) {
+      for (JsonNode enumSample : enumSamples) {
+        writeJsonNode(out, enumSample);
+      }
+    }
+    writeVarLong(out, enumSampleCount);
+    out.writeBoolean(objectsSummary != null);
+    if (objectsSummary != null) {
+      objectsSummary.writeTo(out);
+      writeVarLong(out, properties.size());
+      for (Map.Entry<String, PathSummary> property : properties.entrySet()) {
+        writeString(out, property.getKey());
+        property.getValue().writeTo(out);
+      }
+    }
+    out.writeBoolean(arraysSummary != null);
+    if (arraysSummary != null) {
+      arraysSummary.writeTo(out);
+      items.writeTo(out);
+    }
+    writeVarLong(out, primitivesSummaries == null ? 0 : primitivesSummaries.size());
+    if (primitivesSummaries != null) {
+      for (TypedSamplesSummary primitivesSummary : primitivesSummaries) {
+        writeString(out, primitivesSummary.type);
+        writeNullableString(out, primitivesSummary.format);
+        primitivesSummary.summary.writeTo(out);
+      }
+    }
+    out.writeBoolean(allNumbersAreIntegers);
+    writeVarLong(out, sampledPrimitivesCount);
+    out.writeBoolean(sampledFormats != null);
+    if (sampledFormats != null) {
+      sampledFormats.writeTo(out);
+    }
+  }
+
+  /**
+   * Read a summary written by {@link #writeTo(DataOutput)}
+   */
+  @Nonnull
+  static PathSummary readFrom(@Nonnull DataInput in, @Nonnull JsonSchemaInferrer inferrer,
+      @Nonnull SummaryOptions options, @Nonnull JsonPath path) throws IOException {
+    final PathSummary summary = new PathSummary(inferrer, options, path);
+    final int enumSamplesCount = readLength(in);
+    if (enumSamplesCount > 0) {
+      summary.enumSamples = new LinkedHashSet<>();
+      for (int i = 0; i < enumSamplesCount; i++) {
+        summary.enumSamples.add(requireNonNullNode(readJsonNode(in)));
+      }
+    }
+    summary.enumSampleCount = readVarLong(in);
+    if (in.readBoolean()) {
+      summary.objectsSummary = SamplesSummary.readFrom(in, options);
+      summary.properties = new LinkedHashMap<>();
+      final int propertiesCount = readLength(in);
+      for (int i = 0; i < propertiesCount; i++) {
+        final String fieldName = readString(in);
+        summary.properties.put(fieldName,
+            readFrom(in, inferrer, options, path.appendObject(fieldName)));
+      }
+    }
+    if (in.readBoolean()) {
+      summary.arraysSummary = SamplesSummary.readFrom(in, options);
+      summary.items = readFrom(in, inferrer, options, path.appendArrayStar());
+    }
+    final int primitivesSummariesCount = readLength(in);
+    if (primitivesSummariesCount > 0) {
+      summary.primitivesSummaries = new ArrayList<>(primitivesSummariesCount);
+      for (int i = 0; i < primitivesSummariesCount; i++) {
+        final String type = readString(in);
+        final String format = readNullableString(in);
+        summary.primitivesSummaries.add(
+            new TypedSamplesSummary(type, format, SamplesSummary.readFrom(in, options)));
+      }
+    }
+    summary.allNumbersAreIntegers = in.readBoolean();
+    summary.sampledPrimitivesCount = readVarLong(in);
+    if (in.readBoolean()) {
+      summary.sampledFormats = SampledFormats.readFrom(in);
+    }
+    return summary;
+  }
+
+  @Nonnull
+  private static JsonNode requireNonNullNode(@Nullable JsonNode node) throws IOException {
+    if (node == null) {
+      throw new StreamCorruptedException("Unexpected absent node");
+    }
+    return node;
+  }
+
+  /**
+   * Build {@code anyOf} from the summary. This mirrors how {@link JsonSchemaInferrer} builds
+   * {@code anyOf} from the samples.
+   *
+   * @param schemaWriter The writer the property subschemas are deferred to if the samples are all
+   *                     objects, which is only given for the root
+   */
+  @Nonnull
+  Set<ObjectNode> getAnyOfs(@Nullable StreamingSchemaWriter schemaWriter) {
+    final Collection<Collection<? extends JsonNode>> enumExtractionResults =
+        inferrer.getEnumExtractionResults(enumSamples == null ? Collections.emptySet()
+            : Collections.unmodifiableSet(enumSamples), path);
+    final Set<ObjectNode> anyOfs = new HashSet<>();
+    // Enums
+    enumExtractionResults.stream()
+        .map(enumExtractionResult -> inferrer.enumExtractionResultToSchema(enumExtractionResult,
+            path))
+        .forEach(anyOfs::add);
+    final long objectCount = objectsSummary == null ? 0 : objectsSummary.getSampleCount();
+    final long arrayCount = arraysSummary == null ? 0 : arraysSummary.getSampleCount();
+    long primitiveCount = 0;
+    if (primitivesSummaries != null) {
+      for (TypedSamplesSummary primitivesSummary : primitivesSummaries) {
+        primitiveCount += primitivesSummary.summary.getSampleCount();
+      }
+    }
+    // Objects
+    if (objectsSummary != null) {
+      final Object event = InferenceEvents.beginProcessSamples();
+      // The object schema is only the root schema if there is nothing else
+      final boolean deferProperties = schemaWriter != null && anyOfs.isEmpty()
+          && arraysSummary == null && primitivesSummaries == null;
+      anyOfs.add(getObjectSchema(deferProperties ? schemaWriter : null));
+      InferenceEvents.commitProcessSamples(event, Consts.Types.OBJECT, path, objectCount);
+    }
+    // Arrays
+    if (arraysSummary != null) {
+      final Object event = InferenceEvents.beginProcessSamples();
+      anyOfs.add(inferrer.newArraySchema(items.getAnyOfs(null), Collections.emptyList(),
+          arraysSummary, path));
+      InferenceEvents.commitProcessSamples(event, Consts.Types.ARRAY, path, arrayCount);
+    }
+    // Primitives
+    if (primitivesSummaries != null) {
+      final Object event = InferenceEvents.beginProcessSamples();
+      anyOfs.addAll(getPrimitiveAnyOfs());
+      InferenceEvents.commitProcessSamples(event, JsonSchemaInferrer.PRIMITIVE, path,
+          primitiveCount);
+    }
+    inferrer.postProcessAnyOfs(anyOfs);
+    if (inferrer.getInferenceListener() != null) {
+      inferrer.reportPathInferred(path, objectCount, arrayCount, primitiveCount, enumSampleCount,
+          anyOfs.size());
+    }
+    return Collections.unmodifiableSet(anyOfs);
+  }
+
+  @Nonnull
+  private ObjectNode getObjectSchema(@Nullable StreamingSchemaWriter schemaWriter) {
+    final ObjectNode propertiesSchema;
+    if (schemaWriter != null) {
+      final List<Supplier<ObjectNode>> propertyTasks = new ArrayList<>(properties.size());
+      properties.forEach((fieldName, propertySummary) ->
+          propertyTasks.add(() -> getPropertySchema(fieldName, propertySummary)));
+      propertiesSchema = schemaWriter.deferProperties(properties.keySet(), propertyTasks);
+    } else {
+      propertiesSchema = newObject();
+      properties.forEach((fieldName, propertySummary) ->
+          propertiesSchema.set(fieldName, getPropertySchema(fieldName, propertySummary)));
+    }
+    return inferrer.newObjectSchema(propertiesSchema, Collections.emptyList(), objectsSummary,
+        path);
+  }
+
+  @Nonnull
+  private ObjectNode getPropertySchema(@Nonnull String fieldName,
+      @Nonnull PathSummary propertySummary) {
+    final ObjectNode newProperty = newObject();
+    inferrer.handleDescriptionGeneration(newProperty, fieldName);
+    // anyOfs cannot be empty here, since the property has at least one sample
+    inferrer.setAnyOfs(newProperty, propertySummary.getAnyOfs(null), Collections.emptyList(),
+        propertySummary.path);
+    return newProperty;
+  }
+
+  @Nonnull
+  private Set<ObjectNode> getPrimitiveAnyOfs() {
+    // Now that all the numbers have been seen, decide whether numbers should be integers
+    final boolean useInteger = inferrer.getIntegerTypePreference()
+        .shouldUseInteger(() -> false, allNumbersAreIntegers);
+    final Set<ObjectNode> anyOfs = new HashSet<>();
+    // Numbers are all typed as number here when they may become integers, so types cannot clash
+    for (TypedSamplesSummary primitivesSummary : primitivesSummaries) {
+      final String type = useInteger && Consts.Types.NUMBER.equals(primitivesSummary.type)
+          ? Consts.Types.INTEGER : primitivesSummary.type;
+      final ObjectNode newAnyOf = newObject().put(Consts.Fields.TYPE, type);
+      if (primitivesSummary.format != null) {
+        newAnyOf.put(Consts.Fields.FORMAT, primitivesSummary.format);
+      }
+      // Add the anyOf before filling it in, so the order matches JsonSchemaInferrer
+      anyOfs.add(newAnyOf);
+      inferrer.processGenericSchemaFeature(newAnyOf, Collections.emptyList(),
+          primitivesSummary.summary, type, path);
+    }
+    return anyOfs;
+  }
+
+  /**
+   * The summary of the primitive samples with a type and format
+   */
+  private static final class TypedSamplesSummary {
+
+    final String type;
+    final String format;
+    final SamplesSummary summary;
+
+    TypedSamplesSummary(@Nonnull String type, @Nullable String format,
+        @Nonnull SamplesSummary summary) {
+      this.type = type;
+      this.format = format;
+      this.summary = summary;
+    }
+
+  }
+
+}
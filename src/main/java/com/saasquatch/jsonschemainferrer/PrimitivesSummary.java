@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
@@ -16,12 +17,26 @@ import javax.annotation.concurrent.NotThreadSafe;
 @NotThreadSafe
 final class PrimitivesSummary {
 
+  private final String type;
+  private final String format;
   private final Collection<JsonNode> samples;
 
-  public PrimitivesSummary() {
+  public PrimitivesSummary(@Nonnull String type, @Nullable String format) {
+    this.type = type;
+    this.format = format;
     this.samples = new ArrayList<>();
   }
 
+  @Nonnull
+  public String getType() {
+    return type;
+  }
+
+  @Nullable
+  public String getFormat() {
+    return format;
+  }
+
   public void addSample(@Nonnull JsonNode sample) {
     samples.add(sample);
   }
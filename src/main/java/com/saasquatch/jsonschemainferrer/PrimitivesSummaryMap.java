@@ -1,40 +1,44 @@
 package com.saasquatch.jsonschemainferrer;
 
-import static com.saasquatch.jsonschemainferrer.JunkDrawer.entryOf;
-
 import com.fasterxml.jackson.databind.JsonNode;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
- * {@link Map} type to keep track of {@link PrimitivesSummary}. The keys are combinations of
- * {@code type} and {@code format}.
+ * Table to keep track of {@link PrimitivesSummary}. The keys are combinations of {@code type} and
+ * {@code format}. There are only a handful of combinations at a single path, so the table is a
+ * list that is scanned linearly, which avoids allocating a key for every sample. The types are
+ * constants and the formats usually are too, so the comparisons are mostly identity checks.
  *
  * @author sli
  */
 @NotThreadSafe
-final class PrimitivesSummaryMap extends HashMap<Map.Entry<String, String>, PrimitivesSummary> {
+final class PrimitivesSummaryMap {
+
+  private final List<PrimitivesSummary> primitivesSummaries = new ArrayList<>(4);
 
   public PrimitivesSummaryMap() {}
 
   /**
    * Keep track of a new sample
    *
-   * @param sample the new sample
+   * @param sample     the new sample
+   * @param keepSample whether the sample itself should be kept, or only its type and format
    */
-  public void addSample(@Nonnull String type, @Nullable String format, @Nonnull JsonNode sample) {
-    final Map.Entry<String, String> key = newKey(type, format);
-    this.compute(key, (_key, primitivesSummary) -> {
-      if (primitivesSummary == null) {
-        primitivesSummary = new PrimitivesSummary();
-      }
+  public void addSample(@Nonnull String type, @Nullable String format, @Nonnull JsonNode sample,
+      boolean keepSample) {
+    PrimitivesSummary primitivesSummary = getPrimitivesSummary(type, format);
+    if (primitivesSummary == null) {
+      primitivesSummary = new PrimitivesSummary(Objects.requireNonNull(type), format);
+      primitivesSummaries.add(primitivesSummary);
+    }
+    if (keepSample) {
       primitivesSummary.addSample(sample);
-      return primitivesSummary;
-    });
+    }
   }
 
   /**
@@ -43,11 +47,22 @@ final class PrimitivesSummaryMap extends HashMap<Map.Entry<String, String>, Prim
    */
   @Nullable
   public PrimitivesSummary getPrimitivesSummary(@Nonnull String type, @Nullable String format) {
-    return this.get(newKey(type, format));
+    for (PrimitivesSummary primitivesSummary : primitivesSummaries) {
+      if (primitivesSummary.getType().equals(type)
+          && Objects.equals(primitivesSummary.getFormat(), format)) {
+        return primitivesSummary;
+      }
+    }
+    return null;
   }
 
-  private static Map.Entry<String, String> newKey(@Nonnull String type, @Nullable String format) {
-    return entryOf(Objects.requireNonNull(type), format);
+  /**
+   * @return All the {@link PrimitivesSummary}s in the order their type/format combinations are
+   * first encountered
+   */
+  @Nonnull
+  public List<PrimitivesSummary> getPrimitivesSummaries() {
+    return primitivesSummaries;
   }
 
 }
@@ -1,6 +1,5 @@
 package com.saasquatch.jsonschemainferrer;
 
-import static com.saasquatch.jsonschemainferrer.JunkDrawer.getCommonFieldNames;
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.stringColToArrayDistinct;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -43,7 +42,7 @@ public final class RequiredPolicies {
   @Nullable
   private static JsonNode handleCommonFields(@Nonnull GenericSchemaFeatureInput input,
       boolean nonNull) {
-    final Set<String> commonFieldNames = getCommonFieldNames(input.getSamples(), nonNull);
+    final Set<String> commonFieldNames = input.getSamplesSummary().getCommonFieldNames(nonNull);
     if (commonFieldNames.isEmpty()) {
       return null;
     }
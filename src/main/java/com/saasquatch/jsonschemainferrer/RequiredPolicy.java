@@ -4,6 +4,8 @@ import static com.saasquatch.jsonschemainferrer.JunkDrawer.newObject;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Collections;
+import java.util.Set;
 import javax.annotation.Nonnull;
 
 /**
@@ -35,4 +37,9 @@ public interface RequiredPolicy extends GenericSchemaFeature {
     return result;
   }
 
+  @Override
+  default Set<String> getApplicableTypes() {
+    return Collections.singleton(Consts.Types.OBJECT);
+  }
+
 }
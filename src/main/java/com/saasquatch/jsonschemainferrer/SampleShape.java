@@ -0,0 +1,161 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.isNull;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.isTextualFloat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The shape of a sample, i.e. its field names, node types and nesting, used as a key for
+ * deduplicating samples with the same shape. The hash of the shape is computed once, and the
+ * samples are only compared structurally when their hashes collide. Not public.
+ *
+ * @author sli
+ * @see JsonSchemaInferrerBuilder#setShapeDeduplication(boolean)
+ */
+@Immutable
+final class SampleShape {
+
+  // The kinds of nodes that make a difference to the schema when only shapes matter
+  private static final int KIND_NULL = 0;
+  private static final int KIND_OBJECT = 1;
+  private static final int KIND_ARRAY = 2;
+  private static final int KIND_STRING = 3;
+  private static final int KIND_BOOLEAN = 4;
+  private static final int KIND_INTEGRAL = 5;
+  private static final int KIND_FLOATING_POINT = 6;
+  // NaN and infinity
+  private static final int KIND_TEXTUAL_FLOAT = 7;
+  // Unsupported nodes like POJOs, which are never deduplicated so they are still rejected
+  private static final int KIND_OTHER = 8;
+
+  private final JsonNode sample;
+  private final int hash;
+
+  private SampleShape(@Nullable JsonNode sample) {
+    this.sample = sample;
+    this.hash = hashShape(sample);
+  }
+
+  /**
+   * @return The first sample of each distinct shape in the given samples, in their original order
+   */
+  @Nonnull
+  static List<JsonNode> getDistinctShapes(@Nonnull Collection<? extends JsonNode> samples) {
+    final Set<SampleShape> shapes = new HashSet<>();
+    final List<JsonNode> result = new ArrayList<>();
+    for (JsonNode sample : samples) {
+      if (shapes.add(new SampleShape(sample))) {
+        result.add(sample);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof SampleShape)) {
+      return false;
+    }
+    final SampleShape other = (SampleShape) obj;
+    return hash == other.hash && hasSameShape(sample, other.sample);
+  }
+
+  private static int getKind(@Nullable JsonNode node) {
+    // POJOs wrapping null would otherwise pass for nulls
+    if (node != null && node.isPojo()) {
+      return KIND_OTHER;
+    }
+    if (isNull(node)) {
+      return KIND_NULL;
+    }
+    switch (node.getNodeType()) {
+      case OBJECT:
+        return KIND_OBJECT;
+      case ARRAY:
+        return KIND_ARRAY;
+      case STRING:
+      case BINARY:
+        return KIND_STRING;
+      case BOOLEAN:
+        return KIND_BOOLEAN;
+      case NUMBER:
+        if (isTextualFloat(node)) {
+          return KIND_TEXTUAL_FLOAT;
+        }
+        return node.isIntegralNumber() ? KIND_INTEGRAL : KIND_FLOATING_POINT;
+      default:
+        return KIND_OTHER;
+    }
+  }
+
+  private static int hashShape(@Nullable JsonNode node) {
+    final int kind = getKind(node);
+    int h = kind;
+    if (kind == KIND_OBJECT) {
+      final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+      while (fields.hasNext()) {
+        final Map.Entry<String, JsonNode> field = fields.next();
+        h = 31 * h + field.getKey().hashCode();
+        h = 31 * h + hashShape(field.getValue());
+      }
+    } else if (kind == KIND_ARRAY) {
+      for (JsonNode element : node) {
+        h = 31 * h + hashShape(element);
+      }
+      h = 31 * h + node.size();
+    }
+    return h;
+  }
+
+  private static boolean hasSameShape(@Nullable JsonNode a, @Nullable JsonNode b) {
+    final int kind = getKind(a);
+    if (kind == KIND_OTHER || kind != getKind(b)) {
+      return false;
+    }
+    if (kind == KIND_OBJECT) {
+      if (a.size() != b.size()) {
+        return false;
+      }
+      final Iterator<Map.Entry<String, JsonNode>> aFields = a.fields();
+      final Iterator<Map.Entry<String, JsonNode>> bFields = b.fields();
+      while (aFields.hasNext()) {
+        final Map.Entry<String, JsonNode> aField = aFields.next();
+        final Map.Entry<String, JsonNode> bField = bFields.next();
+        if (!aField.getKey().equals(bField.getKey())
+            || !hasSameShape(aField.getValue(), bField.getValue())) {
+          return false;
+        }
+      }
+    } else if (kind == KIND_ARRAY) {
+      if (a.size() != b.size()) {
+        return false;
+      }
+      for (int i = 0; i < a.size(); i++) {
+        if (!hasSameShape(a.get(i), b.get(i))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+}
@@ -0,0 +1,118 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.format;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readLength;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readString;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.writeString;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.writeVarLong;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * The formats inferred for the sampled primitive values of each type at a single JSON path, which
+ * are used for the values that are not sampled when the number of samples at a path is limited
+ * with {@link JsonSchemaInferrerBuilder#setMaxSamplesPerPath(int)}. A value that is not sampled
+ * gets the format of its type if all the sampled values of its type have the same format, and no
+ * format otherwise. Not public.
+ *
+ * @author sli
+ */
+@NotThreadSafe
+final class SampledFormats {
+
+  // Markers compared by identity
+  @SuppressWarnings("StringOperationCanBeSimplified")
+  private static final String NO_FORMAT = new String("");
+  @SuppressWarnings("StringOperationCanBeSimplified")
+  private static final String MIXED_FORMATS = new String("");
+
+  private static final int TAG_NO_FORMAT = 0;
+  private static final int TAG_MIXED_FORMATS = 1;
+  private static final int TAG_FORMAT = 2;
+
+  // Keyed by types in the order they are first sampled
+  private final Map<String, String> formatsByType = new LinkedHashMap<>();
+
+  /**
+   * Keep track of the format inferred for a sampled value of the given type
+   */
+  void add(@Nonnull String type, @Nullable String format) {
+    addFormat(type, format == null ? NO_FORMAT : format);
+  }
+
+  private void addFormat(@Nonnull String type, @Nonnull String format) {
+    formatsByType.merge(type, format,
+        (oldFormat, newFormat) -> oldFormat.equals(newFormat) ? oldFormat : MIXED_FORMATS);
+  }
+
+  /**
+   * @return Whether any value of the given type has been sampled
+   */
+  boolean isSampled(@Nonnull String type) {
+    return formatsByType.containsKey(type);
+  }
+
+  /**
+   * @return The format for values of the given type that are not sampled
+   */
+  @Nullable
+  String getFormat(@Nonnull String type) {
+    final String format = formatsByType.get(type);
+    //noinspection StringEquality
+    return format == NO_FORMAT || format == MIXED_FORMATS ? null : format;
+  }
+
+  void merge(@Nonnull SampledFormats other) {
+    other.formatsByType.forEach(this::addFormat);
+  }
+
+  void writeTo(@Nonnull DataOutput out) throws IOException {
+    writeVarLong(out, formatsByType.size());
+    for (Map.Entry<String, String> entry : formatsByType.entrySet()) {
+      writeString(out, entry.getKey());
+      final String format = entry.getValue();
+      //noinspection StringEquality
+      if (format == NO_FORMAT) {
+        out.writeByte(TAG_NO_FORMAT);
+      } else if (format == MIXED_FORMATS) {
+        out.writeByte(TAG_MIXED_FORMATS);
+      } else {
+        out.writeByte(TAG_FORMAT);
+        writeString(out, format);
+      }
+    }
+  }
+
+  @Nonnull
+  static SampledFormats readFrom(@Nonnull DataInput in) throws IOException {
+    final SampledFormats sampledFormats = new SampledFormats();
+    final int size = readLength(in);
+    for (int i = 0; i < size; i++) {
+      final String type = readString(in);
+      final int tag = in.readUnsignedByte();
+      switch (tag) {
+        case TAG_NO_FORMAT:
+          sampledFormats.formatsByType.put(type, NO_FORMAT);
+          break;
+        case TAG_MIXED_FORMATS:
+          sampledFormats.formatsByType.put(type, MIXED_FORMATS);
+          break;
+        case TAG_FORMAT:
+          sampledFormats.formatsByType.put(type, readString(in));
+          break;
+        default:
+          throw new StreamCorruptedException(format("Invalid tag[%s]", tag));
+      }
+    }
+    return sampledFormats;
+  }
+
+}
@@ -0,0 +1,453 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.isNull;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readJsonNode;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readLength;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readString;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readVarLong;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.writeJsonNode;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.writeString;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.writeVarLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Summary of the samples for a single (sub)schema, which is everything the built-in
+ * {@link GenericSchemaFeature}s need to produce their results. A summary is either backed by the
+ * samples themselves, or accumulated one sample at a time without retaining the samples, in which
+ * case it only keeps track of what its {@link SummaryOptions} ask for. Not public.
+ *
+ * @author sli
+ * @see SchemaAccumulator
+ */
+@NotThreadSafe
+final class SamplesSummary {
+
+  // Non-null if this summary is backed by the samples
+  private final Collection<? extends JsonNode> samples;
+  // Non-null if this summary is accumulated
+  private final SummaryOptions options;
+  private long sampleCount;
+  private JsonNode firstSample;
+  private JsonNode lastSample;
+  private Set<JsonNode> distinctSamples;
+  // Lazily computed in one pass if this summary is backed by the samples
+  private NumbersSummary numbersSummary;
+  // Lazily computed in one pass if this summary is backed by the samples
+  private boolean textLengthsComputed;
+  private int minTextLength = Integer.MAX_VALUE;
+  private int maxTextLength = Integer.MIN_VALUE;
+  private int minSize = Integer.MAX_VALUE;
+  private int maxSize = Integer.MIN_VALUE;
+  private Set<String> commonFieldNames;
+  private Set<String> nonNullCommonFieldNames;
+
+  private SamplesSummary(@Nullable Collection<? extends JsonNode> samples,
+      @Nullable SummaryOptions options) {
+    this.samples = samples;
+    this.options = options;
+  }
+
+  /**
+   * @return A {@link SamplesSummary} backed by the given samples
+   */
+  static SamplesSummary of(@Nonnull Collection<? extends JsonNode> samples) {
+    return new SamplesSummary(Objects.requireNonNull(samples), null);
+  }
+
+  /**
+   * @return An empty {@link SamplesSummary} that samples can be added to
+   */
+  static SamplesSummary newAccumulated(@Nonnull SummaryOptions options) {
+    final SamplesSummary summary = new SamplesSummary(null, Objects.requireNonNull(options));
+    summary.numbersSummary = new NumbersSummary(options.isIntegersGcd());
+    return summary;
+  }
+
+  /**
+   * Keep track of a new sample. Only available for accumulated summaries.
+   */
+  void addSample(@Nonnull JsonNode sample) {
+    if (sample.isContainerNode()) {
+      // Container samples are not retained, since they can be arbitrarily large
+      addContainer(sample.size());
+      if (sample.isObject() && options.isCommonFieldNames()) {
+        addFieldNames(sample.fieldNames(), sample::has,
+            fieldName -> isNull(sample.get(fieldName)));
+      }
+      return;
+    }
+    requireAccumulated();
+    sampleCount++;
+    if (firstSample == null) {
+      firstSample = sample;
+    }
+    lastSample = sample;
+    if (options.getDistinctSamplesLimit() > 0) {
+      if (distinctSamples == null) {
+        distinctSamples = new LinkedHashSet<>();
+      }
+      if (distinctSamples.size() < options.getDistinctSamplesLimit()) {
+        distinctSamples.add(sample);
+      }
+    }
+    numbersSummary.add(sample);
+    if (options.isTextLengths()) {
+      addTextLength(sample);
+    }
+  }
+
+  private void addTextLength(@Nonnull JsonNode sample) {
+    final int textLength = JunkDrawer.getSerializedTextLength(sample);
+    minTextLength = Math.min(minTextLength, textLength);
+    maxTextLength = Math.max(maxTextLength, textLength);
+  }
+
+  /**
+   * Keep track of a new object sample that has been streamed without building the
+   * {@link JsonNode}. Only available for accumulated summaries.
+   *
+   * @param fieldNullness The field names of the object, mapped to whether their values are null
+   */
+  void addStreamedObject(@Nonnull Map<String, Boolean> fieldNullness) {
+    addContainer(fieldNullness.size());
+    if (options.isCommonFieldNames()) {
+      // Missing fields count as null
+      addFieldNames(fieldNullness.keySet().iterator(), fieldNullness::containsKey,
+          fieldName -> fieldNullness.getOrDefault(fieldName, true));
+    }
+  }
+
+  /**
+   * Keep track of a new array sample that has been streamed without building the
+   * {@link JsonNode}. Only available for accumulated summaries.
+   */
+  void addStreamedArray(@Nonnegative int size) {
+    addContainer(size);
+  }
+
+  private void addContainer(int size) {
+    requireAccumulated();
+    sampleCount++;
+    minSize = Math.min(minSize, size);
+    maxSize = Math.max(maxSize, size);
+  }
+
+  private void addFieldNames(@Nonnull Iterator<String> fieldNames,
+      @Nonnull Predicate<String> hasField, @Nonnull Predicate<String> isNullField) {
+    if (commonFieldNames == null) {
+      commonFieldNames = new LinkedHashSet<>();
+      nonNullCommonFieldNames = new LinkedHashSet<>();
+      while (fieldNames.hasNext()) {
+        final String fieldName = fieldNames.next();
+        commonFieldNames.add(fieldName);
+        if (!isNullField.test(fieldName)) {
+          nonNullCommonFieldNames.add(fieldName);
+        }
+      }
+      return;
+    }
+    commonFieldNames.removeIf(hasField.negate());
+    nonNullCommonFieldNames.removeIf(isNullField);
+  }
+
+  /**
+   * Merge the other summary into this one, as if the samples of the other summary were added to
+   * this one after its own samples. Only available for accumulated summaries with the same
+   * {@link SummaryOptions}.
+   */
+  void merge(@Nonnull SamplesSummary other) {
+    requireAccumulated();
+    other.requireAccumulated();
+    sampleCount += other.sampleCount;
+    if (firstSample == null) {
+      firstSample = other.firstSample;
+    }
+    if (other.lastSample != null) {
+      lastSample = other.lastSample;
+    }
+    if (other.distinctSamples != null) {
+      if (distinctSamples == null) {
+        distinctSamples = new LinkedHashSet<>();
+      }
+      for (JsonNode sample : other.distinctSamples) {
+        if (distinctSamples.size() >= options.getDistinctSamplesLimit()) {
+          break;
+        }
+        distinctSamples.add(sample);
+      }
+    }
+    numbersSummary.merge(other.numbersSummary);
+    minTextLength = Math.min(minTextLength, other.minTextLength);
+    maxTextLength = Math.max(maxTextLength, other.maxTextLength);
+    minSize = Math.min(minSize, other.minSize);
+    maxSize = Math.max(maxSize, other.maxSize);
+    if (other.commonFieldNames != null) {
+      if (commonFieldNames == null) {
+        commonFieldNames = new LinkedHashSet<>(other.commonFieldNames);
+        nonNullCommonFieldNames = new LinkedHashSet<>(other.nonNullCommonFieldNames);
+      } else {
+        commonFieldNames.retainAll(other.commonFieldNames);
+        nonNullCommonFieldNames.retainAll(other.nonNullCommonFieldNames);
+      }
+    }
+  }
+
+  /**
+   * Write this summary with {@link SummaryCodec}. Only available for accumulated summaries.
+   */
+  void writeTo(@Nonnull DataOutput out) throws IOException {
+    requireAccumulated();
+    writeVarLong(out, sampleCount);
+    writeJsonNode(out, firstSample);
+    writeJsonNode(out, lastSample);
+    writeVarLong(out, distinctSamples == null ? 0 : distinctSamples.size());
+    if (distinctSamples != null) {
+      for (JsonNode sample : distinctSamples) {
+        writeJsonNode(out, sample);
+      }
+    }
+    numbersSummary.writeTo(out);
+    out.writeInt(minTextLength);
+    out.writeInt(maxTextLength);
+    out.writeInt(minSize);
+    out.writeInt(maxSize);
+    out.writeBoolean(commonFieldNames != null);
+    if (commonFieldNames != null) {
+      writeStrings(out, commonFieldNames);
+      writeStrings(out, nonNullCommonFieldNames);
+    }
+  }
+
+  /**
+   * Read an accumulated summary written by {@link #writeTo(DataOutput)}
+   */
+  @Nonnull
+  static SamplesSummary readFrom(@Nonnull DataInput in, @Nonnull SummaryOptions options)
+      throws IOException {
+    final SamplesSummary summary = newAccumulated(options);
+    summary.sampleCount = readVarLong(in);
+    summary.firstSample = readJsonNode(in);
+    summary.lastSample = readJsonNode(in);
+    final int distinctSamplesCount = readLength(in);
+    if (distinctSamplesCount > 0) {
+      summary.distinctSamples = new LinkedHashSet<>();
+      for (int i = 0; i < distinctSamplesCount; i++) {
+        summary.distinctSamples.add(readJsonNode(in));
+      }
+    }
+    summary.numbersSummary = NumbersSummary.readFrom(in, options.isIntegersGcd());
+    summary.minTextLength = in.readInt();
+    summary.maxTextLength = in.readInt();
+    summary.minSize = in.readInt();
+    summary.maxSize = in.readInt();
+    if (in.readBoolean()) {
+      summary.commonFieldNames = readStrings(in);
+      summary.nonNullCommonFieldNames = readStrings(in);
+    }
+    return summary;
+  }
+
+  private static void writeStrings(@Nonnull DataOutput out, @Nonnull Set<String> strings)
+      throws IOException {
+    writeVarLong(out, strings.size());
+    for (String s : strings) {
+      writeString(out, s);
+    }
+  }
+
+  @Nonnull
+  private static Set<String> readStrings(@Nonnull DataInput in) throws IOException {
+    final int size = readLength(in);
+    final Set<String> strings = new LinkedHashSet<>();
+    for (int i = 0; i < size; i++) {
+      strings.add(readString(in));
+    }
+    return strings;
+  }
+
+  private void requireAccumulated() {
+    if (options == null) {
+      throw new IllegalStateException("Unable to add samples to a summary backed by samples");
+    }
+  }
+
+  /**
+   * @return The number of samples
+   */
+  long getSampleCount() {
+    return samples != null ? samples.size() : sampleCount;
+  }
+
+  /**
+   * @return The first sample, or null if there are no samples. Not available for container
+   * samples in accumulated summaries.
+   */
+  @Nullable
+  JsonNode getFirstSample() {
+    if (samples != null) {
+      return samples.stream().findFirst().orElse(null);
+    }
+    return firstSample;
+  }
+
+  /**
+   * @return The last sample, or null if there are no samples. Not available for container samples
+   * in accumulated summaries.
+   */
+  @Nullable
+  JsonNode getLastSample() {
+    if (samples != null) {
+      return samples.stream().skip(Math.max(0, samples.size() - 1)).findFirst().orElse(null);
+    }
+    return lastSample;
+  }
+
+  /**
+   * @return The first distinct samples up to the given limit. Accumulated summaries only have as
+   * many distinct samples as {@link SummaryOptions#getDistinctSamplesLimit()}.
+   */
+  @Nonnull
+  List<JsonNode> getFirstDistinctSamples(@Nonnegative int limit) {
+    if (samples != null) {
+      return samples.stream().distinct().limit(limit).collect(Collectors.toList());
+    }
+    if (distinctSamples == null) {
+      return Collections.emptyList();
+    }
+    return distinctSamples.stream().limit(limit).collect(Collectors.toList());
+  }
+
+  /**
+   * @return The minimum number sample, or null if there are no numbers
+   */
+  @Nullable
+  JsonNode getMinNumber() {
+    return getNumbersSummary().getMinNumber();
+  }
+
+  /**
+   * @return The maximum number sample, or null if there are no numbers
+   */
+  @Nullable
+  JsonNode getMaxNumber() {
+    return getNumbersSummary().getMaxNumber();
+  }
+
+  /**
+   * @return The GCD of the numbers, or null if there are no numbers or if any of the numbers is
+   * not a mathematical integer
+   */
+  @Nullable
+  BigInteger getIntegersGcd() {
+    if (samples == null) {
+      requireTracked(options.isIntegersGcd());
+    }
+    return getNumbersSummary().getIntegersGcd();
+  }
+
+  @Nonnull
+  private NumbersSummary getNumbersSummary() {
+    if (numbersSummary == null) {
+      // Min, max and GCD are computed together, since the features often use more than one
+      numbersSummary = new NumbersSummary(true);
+      for (JsonNode sample : samples) {
+        numbersSummary.add(sample);
+      }
+    }
+    return numbersSummary;
+  }
+
+  /**
+   * @return The minimum of {@link JunkDrawer#getSerializedTextLength(JsonNode)} of the samples
+   */
+  @Nonnull
+  OptionalInt getMinTextLength() {
+    computeTextLengths();
+    return minTextLength > maxTextLength ? OptionalInt.empty() : OptionalInt.of(minTextLength);
+  }
+
+  /**
+   * @return The maximum of {@link JunkDrawer#getSerializedTextLength(JsonNode)} of the samples
+   */
+  @Nonnull
+  OptionalInt getMaxTextLength() {
+    computeTextLengths();
+    return minTextLength > maxTextLength ? OptionalInt.empty() : OptionalInt.of(maxTextLength);
+  }
+
+  private void computeTextLengths() {
+    if (samples == null) {
+      requireTracked(options.isTextLengths());
+    } else if (!textLengthsComputed) {
+      // Min and max are computed together, so each sample is only scanned once
+      for (JsonNode sample : samples) {
+        addTextLength(sample);
+      }
+      textLengthsComputed = true;
+    }
+  }
+
+  /**
+   * @return The minimum size of the container samples
+   */
+  @Nonnull
+  OptionalInt getMinSize() {
+    if (samples != null) {
+      return samples.stream().filter(JsonNode::isContainerNode).mapToInt(JsonNode::size).min();
+    }
+    return minSize > maxSize ? OptionalInt.empty() : OptionalInt.of(minSize);
+  }
+
+  /**
+   * @return The maximum size of the container samples
+   */
+  @Nonnull
+  OptionalInt getMaxSize() {
+    if (samples != null) {
+      return samples.stream().filter(JsonNode::isContainerNode).mapToInt(JsonNode::size).max();
+    }
+    return minSize > maxSize ? OptionalInt.empty() : OptionalInt.of(maxSize);
+  }
+
+  /**
+   * @return The field names common to the object samples
+   * @see JunkDrawer#getCommonFieldNames(Iterable, boolean)
+   */
+  @Nonnull
+  Set<String> getCommonFieldNames(boolean requireNonNull) {
+    if (samples != null) {
+      return JunkDrawer.getCommonFieldNames(samples, requireNonNull);
+    }
+    requireTracked(options.isCommonFieldNames());
+    final Set<String> result = requireNonNull ? nonNullCommonFieldNames : commonFieldNames;
+    return result == null || result.isEmpty() ? Collections.emptySet()
+        : Collections.unmodifiableSet(result);
+  }
+
+  private static void requireTracked(boolean tracked) {
+    if (!tracked) {
+      throw new IllegalStateException("Summary not tracked");
+    }
+  }
+
+}
@@ -0,0 +1,344 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.JSON_FACTORY;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.format;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.readTree;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readJsonNode;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readString;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.readVarLong;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.writeJsonNode;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.writeString;
+import static com.saasquatch.jsonschemainferrer.SummaryCodec.writeVarLong;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.saasquatch.jsonschemainferrer.annotations.Beta;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Accumulator for inferring JSON schema from samples that are added one at a time, which produces
+ * the same schema as {@link JsonSchemaInferrer#inferForSamples(java.util.Collection)} with all the
+ * samples added. This class is mutable and not thread safe.
+ *
+ * @author sli
+ * @see JsonSchemaInferrer#newAccumulator()
+ */
+@Beta
+@NotThreadSafe
+public final class SchemaAccumulator {
+
+  // "JSIA"
+  private static final int ENCODING_MAGIC = 0x4A534941;
+  private static final int ENCODING_VERSION = 1;
+
+  private final JsonSchemaInferrer inferrer;
+  private final SummaryOptions summaryOptions;
+  // Non-null if the samples are summarized
+  private PathSummary rootSummary;
+  // Non-null if the samples have to be retained
+  private final List<JsonNode> samples;
+  private long sampleCount;
+
+  SchemaAccumulator(@Nonnull JsonSchemaInferrer inferrer,
+      @Nullable SummaryOptions summaryOptions) {
+    this.inferrer = inferrer;
+    this.summaryOptions = summaryOptions;
+    if (summaryOptions == null) {
+      this.rootSummary = null;
+      this.samples = new ArrayList<>();
+    } else {
+      this.rootSummary = new PathSummary(inferrer, summaryOptions, JsonPath.ROOT);
+      this.samples = null;
+    }
+  }
+
+  /**
+   * Add a sample JSON. Note that if this method throws, the state of this accumulator is
+   * undefined and it should no longer be used.
+   *
+   * @param sample the sample JSON
+   * @return this accumulator
+   * @throws IllegalArgumentException if the sample contains unsupported nodes
+   */
+  public SchemaAccumulator add(@Nullable JsonNode sample) {
+    final JsonNode processedSample = inferrer.preProcessSample(sample);
+    if (rootSummary != null) {
+      rootSummary.addSample(processedSample);
+    } else {
+      samples.add(processedSample);
+    }
+    sampleCount++;
+    return this;
+  }
+
+  /**
+   * Add a sample JSON straight from the tokens of the given {@link JsonParser}. When the
+   * accumulator only keeps summaries of the samples, objects and arrays are never built as
+   * {@link JsonNode}s. The parser should either be pointing at the first token of the sample, or
+   * have no current token, in which case the next token is read. After this method returns, the
+   * parser points at the last token of the sample. Note that if this method throws, the state of
+   * this accumulator is undefined and it should no longer be used.
+   *
+   * @param parser the parser to read the sample JSON from
+   * @return this accumulator
+   * @throws IOException              if the parser throws
+   * @throws IllegalArgumentException if the sample contains unsupported values
+   */
+  public SchemaAccumulator addFrom(@Nonnull JsonParser parser) throws IOException {
+    final JsonToken token = parser.hasCurrentToken() ? parser.currentToken() : parser.nextToken();
+    if (token == null) {
+      throw new EOFException("No more samples available");
+    }
+    if (rootSummary != null) {
+      rootSummary.addSample(parser);
+    } else {
+      samples.add(inferrer.preProcessSample(readTree(parser)));
+    }
+    sampleCount++;
+    return this;
+  }
+
+  /**
+   * Add all the remaining sample JSONs from the given {@link JsonParser}, e.g. for
+   * newline-delimited JSON.
+   *
+   * @param parser the parser to read the sample JSONs from
+   * @return this accumulator
+   * @throws IOException if reading the input fails
+   * @see #addFrom(JsonParser)
+   */
+  public SchemaAccumulator addAllFrom(@Nonnull JsonParser parser) throws IOException {
+    if (!parser.hasCurrentToken()) {
+      parser.nextToken();
+    }
+    while (parser.hasCurrentToken()) {
+      addFrom(parser);
+      parser.nextToken();
+    }
+    return this;
+  }
+
+  /**
+   * Add all the sample JSONs from the given {@link InputStream}, e.g. for newline-delimited JSON.
+   * The {@link InputStream} is not closed by this method.
+   *
+   * @param in the UTF-8 (or UTF-16/32) encoded input of the sample JSONs
+   * @return this accumulator
+   * @throws IOException if reading the input fails
+   * @see #addFrom(JsonParser)
+   */
+  public SchemaAccumulator addAllFrom(@Nonnull InputStream in) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+      return addAllFrom(parser);
+    }
+  }
+
+  /**
+   * Add all the sample JSONs from the given {@link Reader}, e.g. for newline-delimited JSON. The
+   * {@link Reader} is not closed by this method.
+   *
+   * @param reader the input of the sample JSONs
+   * @return this accumulator
+   * @throws IOException if reading the input fails
+   * @see #addFrom(JsonParser)
+   */
+  public SchemaAccumulator addAllFrom(@Nonnull Reader reader) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(reader)) {
+      return addAllFrom(parser);
+    }
+  }
+
+  /**
+   * Merge the samples of the other accumulator into this one, as if they were added to this
+   * accumulator after its own samples. The other accumulator is not modified, and merging is
+   * associative, so accumulators filled in parallel can be merged in any grouping as long as their
+   * order is kept.
+   *
+   * @param other the other accumulator, which must be created by the same
+   *              {@link JsonSchemaInferrer} as this one
+   * @return this accumulator
+   * @throws IllegalArgumentException if the other accumulator is this accumulator or is created by
+   *                                  a different {@link JsonSchemaInferrer}
+   */
+  public SchemaAccumulator merge(@Nonnull SchemaAccumulator other) {
+    if (other == this) {
+      throw new IllegalArgumentException("Unable to merge an accumulator into itself");
+    }
+    if (other.inferrer != inferrer) {
+      throw new IllegalArgumentException(
+          "Unable to merge accumulators created by different inferrers");
+    }
+    if (rootSummary != null) {
+      rootSummary.merge(other.rootSummary);
+    } else {
+      samples.addAll(other.samples);
+    }
+    sampleCount += other.sampleCount;
+    return this;
+  }
+
+  /**
+   * Write this accumulator in a compact binary encoding, which can be read back with
+   * {@link JsonSchemaInferrer#readAccumulator(InputStream)} by an inferrer with the same options,
+   * e.g. for shipping accumulators from worker nodes to be merged. The {@link OutputStream} is
+   * flushed but not closed by this method.
+   *
+   * @param out the output
+   * @throws IOException              if writing to the output fails
+   * @throws IllegalArgumentException if the retained samples contain unsupported values
+   */
+  public void writeTo(@Nonnull OutputStream out) throws IOException {
+    final DataOutputStream dataOut = new DataOutputStream(out);
+    dataOut.writeInt(ENCODING_MAGIC);
+    dataOut.writeByte(ENCODING_VERSION);
+    dataOut.writeBoolean(rootSummary != null);
+    if (rootSummary != null) {
+      writeString(dataOut, summaryOptions.getSignature());
+    }
+    writeVarLong(dataOut, sampleCount);
+    if (rootSummary != null) {
+      rootSummary.writeTo(dataOut);
+    } else {
+      for (JsonNode sample : samples) {
+        writeJsonNode(dataOut, sample);
+      }
+    }
+    dataOut.flush();
+  }
+
+  /**
+   * Read an accumulator written by {@link #writeTo(OutputStream)}
+   */
+  @Nonnull
+  static SchemaAccumulator readFrom(@Nonnull InputStream in, @Nonnull JsonSchemaInferrer inferrer,
+      @Nullable SummaryOptions summaryOptions) throws IOException {
+    final DataInputStream dataIn = new DataInputStream(in);
+    if (dataIn.readInt() != ENCODING_MAGIC) {
+      throw new StreamCorruptedException("Input is not an encoded accumulator");
+    }
+    final int version = dataIn.readUnsignedByte();
+    if (version != ENCODING_VERSION) {
+      throw new StreamCorruptedException(format("Unsupported encoding version[%s]", version));
+    }
+    final boolean summarized = dataIn.readBoolean();
+    if (summarized != (summaryOptions != null) || summarized
+        && !readString(dataIn).equals(summaryOptions.getSignature())) {
+      throw new IllegalArgumentException(
+          "The accumulator is encoded by an inferrer with different options");
+    }
+    final SchemaAccumulator accumulator = new SchemaAccumulator(inferrer, summaryOptions);
+    accumulator.sampleCount = readVarLong(dataIn);
+    if (summarized) {
+      accumulator.rootSummary = PathSummary.readFrom(dataIn, inferrer, summaryOptions,
+          JsonPath.ROOT);
+    } else {
+      for (long i = 0; i < accumulator.sampleCount; i++) {
+        accumulator.samples.add(inferrer.preProcessSample(readJsonNode(dataIn)));
+      }
+    }
+    return accumulator;
+  }
+
+  /**
+   * Infer the JSON schema from the samples added so far and write it with the given
+   * {@link JsonGenerator}. The output is the same as serializing the result of {@link #toSchema()}
+   * with the same field order. As with
+   * {@link JsonSchemaInferrer#writeSchemaForSamples(java.util.Collection, JsonGenerator)}, the
+   * subschemas of the properties of object samples are inferred and written one at a time if
+   * possible. The {@link JsonGenerator} is flushed but not closed by this method.
+   *
+   * @param generator the generator to write the JSON schema with
+   * @throws IOException           if writing fails
+   * @throws IllegalStateException if no samples have been added
+   */
+  @Beta
+  public void writeSchemaTo(@Nonnull JsonGenerator generator) throws IOException {
+    if (sampleCount == 0) {
+      throw new IllegalStateException("Unable to process empty samples");
+    }
+    final Object event = InferenceEvents.beginInference();
+    final long startNanos = inferrer.getInferenceListener() == null ? 0 : System.nanoTime();
+    final StreamingSchemaWriter schemaWriter = new StreamingSchemaWriter();
+    schemaWriter.write(generator, buildSchema(schemaWriter));
+    inferrer.reportInferenceCompleted(sampleCount, startNanos);
+    InferenceEvents.commitInference(event, sampleCount);
+    generator.flush();
+  }
+
+  /**
+   * Infer the JSON schema from the samples added so far and write it to the given
+   * {@link OutputStream} as UTF-8 encoded JSON. The {@link OutputStream} is flushed but not closed
+   * by this method.
+   *
+   * @param out the output
+   * @throws IOException           if writing fails
+   * @throws IllegalStateException if no samples have been added
+   * @see #writeSchemaTo(JsonGenerator)
+   */
+  @Beta
+  public void writeSchemaTo(@Nonnull OutputStream out) throws IOException {
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+      writeSchemaTo(generator);
+    }
+  }
+
+  /**
+   * @return The number of samples added so far
+   */
+  public long getSampleCount() {
+    return sampleCount;
+  }
+
+  /**
+   * Infer the JSON schema from the samples added so far. More samples can still be added after
+   * this method is called.
+   *
+   * @return the inferred JSON schema
+   * @throws IllegalStateException if no samples have been added
+   */
+  @Nonnull
+  public ObjectNode toSchema() {
+    if (sampleCount == 0) {
+      throw new IllegalStateException("Unable to process empty samples");
+    }
+    final Object event = InferenceEvents.beginInference();
+    final long startNanos = inferrer.getInferenceListener() == null ? 0 : System.nanoTime();
+    final ObjectNode schema = buildSchema(null);
+    inferrer.reportInferenceCompleted(sampleCount, startNanos);
+    InferenceEvents.commitInference(event, sampleCount);
+    return schema;
+  }
+
+  /**
+   * Infer the JSON schema from the samples added so far without reporting to the
+   * {@link InferenceListener}
+   *
+   * @param schemaWriter The writer the root property subschemas are deferred to, or null if the
+   *                     whole schema should be built
+   */
+  @Nonnull
+  ObjectNode buildSchema(@Nullable StreamingSchemaWriter schemaWriter) {
+    if (rootSummary == null) {
+      return inferrer.doInferForSamples(samples, null, schemaWriter);
+    }
+    return inferrer.newRootSchema(rootSummary.getAnyOfs(
+        inferrer.arePropertiesIndependent() ? schemaWriter : null), Collections.emptyList());
+  }
+
+}
@@ -0,0 +1,143 @@
+package com.saasquatch.jsonschemainferrer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Hash-consing of the subschemas of a result schema, so equal subschemas are shared as the same
+ * {@link JsonNode} instances. Subschemas are interned bottom up, so by the time a container is
+ * interned its container children are already canonical, and it can be hashed and compared by
+ * looking at its direct children only, with the container children compared by identity. The
+ * canonical containers must not be modified afterwards. Not public.
+ *
+ * @author sli
+ * @see JsonSchemaInferrerBuilder#setSchemaInterning(boolean)
+ */
+@NotThreadSafe
+final class SchemaInterner {
+
+  private final Map<Key, JsonNode> canonicalNodes = new HashMap<>();
+
+  /**
+   * Replace the descendants of the given container with their canonical instances. The container
+   * itself is left as is, so it can still be modified.
+   */
+  void internDescendants(@Nonnull ContainerNode<?> container) {
+    if (container.isObject()) {
+      final Iterator<Map.Entry<String, JsonNode>> fields = container.fields();
+      while (fields.hasNext()) {
+        final Map.Entry<String, JsonNode> field = fields.next();
+        final JsonNode value = field.getValue();
+        final JsonNode canonicalValue = intern(value);
+        if (canonicalValue != value) {
+          field.setValue(canonicalValue);
+        }
+      }
+    } else {
+      final ArrayNode arrayNode = (ArrayNode) container;
+      for (int i = 0; i < arrayNode.size(); i++) {
+        final JsonNode element = arrayNode.get(i);
+        final JsonNode canonicalElement = intern(element);
+        if (canonicalElement != element) {
+          arrayNode.set(i, canonicalElement);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return The canonical instance of the given node. Value nodes are not interned.
+   */
+  @Nonnull
+  private JsonNode intern(@Nonnull JsonNode node) {
+    if (!node.isContainerNode()) {
+      return node;
+    }
+    internDescendants((ContainerNode<?>) node);
+    final JsonNode canonicalNode = canonicalNodes.putIfAbsent(new Key(node), node);
+    return canonicalNode == null ? node : canonicalNode;
+  }
+
+  /**
+   * Key of a container whose container children are canonical, with its hash computed once
+   */
+  private static final class Key {
+
+    private final JsonNode node;
+    private final int hash;
+
+    Key(@Nonnull JsonNode node) {
+      this.node = node;
+      int h = node.isArray() ? 1 : 2;
+      if (node.isArray()) {
+        for (JsonNode element : node) {
+          h = 31 * h + childHashCode(element);
+        }
+      } else {
+        final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+          final Map.Entry<String, JsonNode> field = fields.next();
+          h = 31 * h + field.getKey().hashCode();
+          h = 31 * h + childHashCode(field.getValue());
+        }
+      }
+      this.hash = h;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      if (hash != other.hash || node.getNodeType() != other.node.getNodeType()
+          || node.size() != other.node.size()) {
+        return false;
+      }
+      if (node.isArray()) {
+        for (int i = 0; i < node.size(); i++) {
+          if (!isSameChild(node.get(i), other.node.get(i))) {
+            return false;
+          }
+        }
+        return true;
+      }
+      // Field order matters, so shared subschemas serialize the same as the originals
+      final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+      final Iterator<Map.Entry<String, JsonNode>> otherFields = other.node.fields();
+      while (fields.hasNext()) {
+        final Map.Entry<String, JsonNode> field = fields.next();
+        final Map.Entry<String, JsonNode> otherField = otherFields.next();
+        if (!field.getKey().equals(otherField.getKey())
+            || !isSameChild(field.getValue(), otherField.getValue())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static int childHashCode(@Nonnull JsonNode child) {
+      return child.isContainerNode() ? System.identityHashCode(child) : child.hashCode();
+    }
+
+    private static boolean isSameChild(@Nonnull JsonNode a, @Nonnull JsonNode b) {
+      return a.isContainerNode() ? a == b : a.equals(b);
+    }
+
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.newObject;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.writeTree;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Writer of a result schema whose root properties are only inferred as they are written, so the
+ * subschemas of the root properties are built, written and dropped one at a time instead of all
+ * being held in the result schema. The root schema is built with placeholders for the property
+ * subschemas, which is only done if the root samples are all objects and no
+ * {@link GenericSchemaFeature} reads the property subschemas. Not public.
+ *
+ * @author sli
+ * @see JsonSchemaInferrer#writeSchemaForSamples(Collection, JsonGenerator)
+ * @see SchemaAccumulator#writeSchemaTo(JsonGenerator)
+ */
+@NotThreadSafe
+final class StreamingSchemaWriter {
+
+  // The subschemas of the root properties in the order of the properties, or null if not deferred
+  private List<Supplier<ObjectNode>> propertySchemas;
+
+  /**
+   * Defer inferring the subschemas of the root properties until the schema is written
+   *
+   * @param propertySchemas The subschemas in the same order as the field names
+   * @return The properties of the root schema with placeholders for the subschemas
+   */
+  @Nonnull
+  ObjectNode deferProperties(@Nonnull Collection<String> fieldNames,
+      @Nonnull List<Supplier<ObjectNode>> propertySchemas) {
+    if (this.propertySchemas != null) {
+      throw new IllegalStateException("Root properties already deferred");
+    }
+    this.propertySchemas = propertySchemas;
+    final ObjectNode properties = newObject();
+    fieldNames.forEach(properties::putNull);
+    return properties;
+  }
+
+  /**
+   * Write the given root schema, inferring the deferred property subschemas along the way
+   */
+  void write(@Nonnull JsonGenerator generator, @Nonnull ObjectNode schema) throws IOException {
+    if (propertySchemas == null) {
+      writeTree(generator, schema);
+      return;
+    }
+    generator.writeStartObject();
+    for (Iterator<Map.Entry<String, JsonNode>> iter = schema.fields(); iter.hasNext(); ) {
+      final Map.Entry<String, JsonNode> field = iter.next();
+      generator.writeFieldName(field.getKey());
+      if (Consts.Fields.PROPERTIES.equals(field.getKey())) {
+        writeProperties(generator, field.getValue());
+      } else {
+        writeTree(generator, field.getValue());
+      }
+    }
+    generator.writeEndObject();
+  }
+
+  private void writeProperties(@Nonnull JsonGenerator generator, @Nonnull JsonNode properties)
+      throws IOException {
+    generator.writeStartObject();
+    final Iterator<String> fieldNames = properties.fieldNames();
+    for (int i = 0; fieldNames.hasNext(); i++) {
+      generator.writeFieldName(fieldNames.next());
+      writeTree(generator, propertySchemas.get(i).get());
+      // Let go of the samples of the property as well
+      propertySchemas.set(i, null);
+    }
+    generator.writeEndObject();
+  }
+
+}
@@ -3,6 +3,8 @@ package com.saasquatch.jsonschemainferrer;
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.newObject;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Collections;
+import java.util.Set;
 import javax.annotation.Nonnull;
 
 /**
@@ -22,9 +24,7 @@ public enum StringLengthFeature implements GenericSchemaFeature {
         return null;
       }
       final ObjectNode result = newObject();
-      input.getSamples().stream()
-          .mapToInt(JunkDrawer::getSerializedTextLength)
-          .min()
+      input.getSamplesSummary().getMinTextLength()
           .ifPresent(minLength -> result.put(Consts.Fields.MIN_LENGTH, minLength));
       return result;
     }
@@ -40,14 +40,16 @@ public enum StringLengthFeature implements GenericSchemaFeature {
         return null;
       }
       final ObjectNode result = newObject();
-      input.getSamples().stream()
-          .mapToInt(JunkDrawer::getSerializedTextLength)
-          .max()
+      input.getSamplesSummary().getMaxTextLength()
           .ifPresent(maxLength -> result.put(Consts.Fields.MAX_LENGTH, maxLength));
       return result;
     }
   },
   ;
 
+  @Override
+  public Set<String> getApplicableTypes() {
+    return Collections.singleton(Consts.Types.STRING);
+  }
 
 }
@@ -0,0 +1,247 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.format;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.isNull;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Utilities for the compact binary encoding of {@link SchemaAccumulator}s. Lengths and counts are
+ * encoded as variable length integers, and {@link JsonNode}s are encoded with a one byte tag
+ * followed by their values, so the exact node types survive a round trip. Not public.
+ *
+ * @author sli
+ * @see SchemaAccumulator#writeTo(java.io.OutputStream)
+ */
+final class SummaryCodec {
+
+  private static final int TAG_NULL = 0;
+  private static final int TAG_FALSE = 1;
+  private static final int TAG_TRUE = 2;
+  private static final int TAG_TEXT = 3;
+  private static final int TAG_BINARY = 4;
+  private static final int TAG_SHORT = 5;
+  private static final int TAG_INT = 6;
+  private static final int TAG_LONG = 7;
+  private static final int TAG_BIG_INTEGER = 8;
+  private static final int TAG_FLOAT = 9;
+  private static final int TAG_DOUBLE = 10;
+  private static final int TAG_BIG_DECIMAL = 11;
+  private static final int TAG_ARRAY = 12;
+  private static final int TAG_OBJECT = 13;
+  // Marker for a null reference, as opposed to a NullNode
+  private static final int TAG_ABSENT = 14;
+
+  private SummaryCodec() {}
+
+  static void writeVarLong(@Nonnull DataOutput out, @Nonnegative long v) throws IOException {
+    while ((v & ~0x7FL) != 0) {
+      out.writeByte((int) ((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    out.writeByte((int) v);
+  }
+
+  static long readVarLong(@Nonnull DataInput in) throws IOException {
+    long result = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final int b = in.readUnsignedByte();
+      result |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new StreamCorruptedException("Malformed variable length integer");
+  }
+
+  static int readLength(@Nonnull DataInput in) throws IOException {
+    final long length = readVarLong(in);
+    if (length < 0 || length > Integer.MAX_VALUE) {
+      throw new StreamCorruptedException(format("Invalid length[%s]", length));
+    }
+    return (int) length;
+  }
+
+  static void writeBytes(@Nonnull DataOutput out, @Nonnull byte[] bytes) throws IOException {
+    writeVarLong(out, bytes.length);
+    out.write(bytes);
+  }
+
+  @Nonnull
+  static byte[] readBytes(@Nonnull DataInput in) throws IOException {
+    final byte[] bytes = new byte[readLength(in)];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  /**
+   * Unlike {@link DataOutput#writeUTF(String)}, this has no length limit
+   */
+  static void writeString(@Nonnull DataOutput out, @Nonnull String s) throws IOException {
+    writeBytes(out, s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Nonnull
+  static String readString(@Nonnull DataInput in) throws IOException {
+    return new String(readBytes(in), StandardCharsets.UTF_8);
+  }
+
+  static void writeNullableString(@Nonnull DataOutput out, @Nullable String s)
+      throws IOException {
+    out.writeBoolean(s != null);
+    if (s != null) {
+      writeString(out, s);
+    }
+  }
+
+  @Nullable
+  static String readNullableString(@Nonnull DataInput in) throws IOException {
+    return in.readBoolean() ? readString(in) : null;
+  }
+
+  static void writeNullableBigInteger(@Nonnull DataOutput out, @Nullable BigInteger v)
+      throws IOException {
+    out.writeBoolean(v != null);
+    if (v != null) {
+      writeBytes(out, v.toByteArray());
+    }
+  }
+
+  @Nullable
+  static BigInteger readNullableBigInteger(@Nonnull DataInput in) throws IOException {
+    return in.readBoolean() ? new BigInteger(readBytes(in)) : null;
+  }
+
+  /**
+   * Write a {@link JsonNode}, which can be null. Nodes that are to be serialized as null are
+   * written as {@link com.fasterxml.jackson.databind.node.NullNode}.
+   *
+   * @throws IllegalArgumentException if the node contains POJOs
+   */
+  static void writeJsonNode(@Nonnull DataOutput out, @Nullable JsonNode node) throws IOException {
+    if (node == null) {
+      out.writeByte(TAG_ABSENT);
+    } else if (isNull(node)) {
+      out.writeByte(TAG_NULL);
+    } else if (node.isBoolean()) {
+      out.writeByte(node.booleanValue() ? TAG_TRUE : TAG_FALSE);
+    } else if (node.isTextual()) {
+      out.writeByte(TAG_TEXT);
+      writeString(out, node.textValue());
+    } else if (node.isBinary()) {
+      out.writeByte(TAG_BINARY);
+      writeBytes(out, node.binaryValue());
+    } else if (node.isShort()) {
+      out.writeByte(TAG_SHORT);
+      out.writeShort(node.shortValue());
+    } else if (node.isInt()) {
+      out.writeByte(TAG_INT);
+      out.writeInt(node.intValue());
+    } else if (node.isLong()) {
+      out.writeByte(TAG_LONG);
+      out.writeLong(node.longValue());
+    } else if (node.isBigInteger()) {
+      out.writeByte(TAG_BIG_INTEGER);
+      writeBytes(out, node.bigIntegerValue().toByteArray());
+    } else if (node.isFloat()) {
+      out.writeByte(TAG_FLOAT);
+      out.writeFloat(node.floatValue());
+    } else if (node.isDouble()) {
+      out.writeByte(TAG_DOUBLE);
+      out.writeDouble(node.doubleValue());
+    } else if (node.isBigDecimal()) {
+      out.writeByte(TAG_BIG_DECIMAL);
+      final BigDecimal decimalValue = node.decimalValue();
+      out.writeInt(decimalValue.scale());
+      writeBytes(out, decimalValue.unscaledValue().toByteArray());
+    } else if (node.isArray()) {
+      out.writeByte(TAG_ARRAY);
+      writeVarLong(out, node.size());
+      for (JsonNode item : node) {
+        writeJsonNode(out, item);
+      }
+    } else if (node.isObject()) {
+      out.writeByte(TAG_OBJECT);
+      writeVarLong(out, node.size());
+      for (Iterator<Map.Entry<String, JsonNode>> iter = node.fields(); iter.hasNext(); ) {
+        final Map.Entry<String, JsonNode> field = iter.next();
+        writeString(out, field.getKey());
+        writeJsonNode(out, field.getValue());
+      }
+    } else {
+      throw new IllegalArgumentException(node.getClass().getSimpleName() + " not supported");
+    }
+  }
+
+  @Nullable
+  static JsonNode readJsonNode(@Nonnull DataInput in) throws IOException {
+    final JsonNodeFactory jnf = JsonNodeFactory.instance;
+    final int tag = in.readUnsignedByte();
+    switch (tag) {
+      case TAG_ABSENT:
+        return null;
+      case TAG_NULL:
+        return jnf.nullNode();
+      case TAG_FALSE:
+      case TAG_TRUE:
+        return jnf.booleanNode(tag == TAG_TRUE);
+      case TAG_TEXT:
+        return jnf.textNode(readString(in));
+      case TAG_BINARY:
+        return jnf.binaryNode(readBytes(in));
+      case TAG_SHORT:
+        return jnf.numberNode(in.readShort());
+      case TAG_INT:
+        return jnf.numberNode(in.readInt());
+      case TAG_LONG:
+        return jnf.numberNode(in.readLong());
+      case TAG_BIG_INTEGER:
+        return jnf.numberNode(new BigInteger(readBytes(in)));
+      case TAG_FLOAT:
+        return jnf.numberNode(in.readFloat());
+      case TAG_DOUBLE:
+        return jnf.numberNode(in.readDouble());
+      case TAG_BIG_DECIMAL: {
+        final int scale = in.readInt();
+        // Not using JsonNodeFactory, which may normalize the value
+        return DecimalNode.valueOf(new BigDecimal(new BigInteger(readBytes(in)), scale));
+      }
+      case TAG_ARRAY: {
+        final int size = readLength(in);
+        final ArrayNode arrayNode = jnf.arrayNode();
+        for (int i = 0; i < size; i++) {
+          arrayNode.add(readJsonNode(in));
+        }
+        return arrayNode;
+      }
+      case TAG_OBJECT: {
+        final int size = readLength(in);
+        final ObjectNode objectNode = jnf.objectNode();
+        for (int i = 0; i < size; i++) {
+          final String fieldName = readString(in);
+          objectNode.set(fieldName, readJsonNode(in));
+        }
+        return objectNode;
+      }
+      default:
+        throw new StreamCorruptedException(format("Invalid tag[%s]", tag));
+    }
+  }
+
+}
@@ -0,0 +1,100 @@
+package com.saasquatch.jsonschemainferrer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Options for what {@link SamplesSummary SamplesSummaries} need to keep track of when they are
+ * accumulated without retaining the samples. Only available when all the configured components
+ * are built-in ones that can work with summaries. Not public.
+ *
+ * @author sli
+ * @see JsonSchemaInferrerBuilder
+ */
+@Immutable
+final class SummaryOptions {
+
+  private final int distinctSamplesLimit;
+  private final boolean integersGcd;
+  private final boolean commonFieldNames;
+  private final boolean textLengths;
+  private final List<ValidEnumExtractor<?>> enumExtractors;
+  private final int maxSamplesPerPath;
+
+  SummaryOptions(@Nonnegative int distinctSamplesLimit, boolean integersGcd,
+      boolean commonFieldNames, boolean textLengths,
+      @Nonnull List<ValidEnumExtractor<?>> enumExtractors, @Nonnegative int maxSamplesPerPath) {
+    this.distinctSamplesLimit = distinctSamplesLimit;
+    this.integersGcd = integersGcd;
+    this.commonFieldNames = commonFieldNames;
+    this.textLengths = textLengths;
+    this.enumExtractors = Collections.unmodifiableList(enumExtractors);
+    this.maxSamplesPerPath = maxSamplesPerPath;
+  }
+
+  /**
+   * @return The number of distinct samples to keep, e.g. for {@code examples}
+   */
+  int getDistinctSamplesLimit() {
+    return distinctSamplesLimit;
+  }
+
+  /**
+   * @return Whether the GCD of integers needs to be tracked
+   */
+  boolean isIntegersGcd() {
+    return integersGcd;
+  }
+
+  /**
+   * @return Whether the field names common to all the object samples need to be tracked
+   */
+  boolean isCommonFieldNames() {
+    return commonFieldNames;
+  }
+
+  /**
+   * @return Whether the min and max text lengths of the samples need to be tracked
+   */
+  boolean isTextLengths() {
+    return textLengths;
+  }
+
+  /**
+   * @return The max number of primitive samples per path to infer formats for, or 0 for no limit
+   */
+  int getMaxSamplesPerPath() {
+    return maxSamplesPerPath;
+  }
+
+  /**
+   * @return A string that is the same for {@link SummaryOptions} that keep track of the same things
+   * in the same way, which is used for checking whether encoded summaries are compatible
+   */
+  @Nonnull
+  String getSignature() {
+    return distinctSamplesLimit + "," + integersGcd + "," + commonFieldNames + "," + textLengths
+        + "," + maxSamplesPerPath
+        + enumExtractors.stream()
+        .map(enumExtractor -> "," + enumExtractor.getEnumClass().getName())
+        .collect(Collectors.joining());
+  }
+
+  /**
+   * @return Whether the given sample would be extracted into an enum group
+   */
+  boolean isEnumValue(@Nonnull JsonNode sample) {
+    for (ValidEnumExtractor<?> enumExtractor : enumExtractors) {
+      if (enumExtractor.isEnumValue(sample)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,88 @@
+package com.saasquatch.jsonschemainferrer;
+
+import com.saasquatch.jsonschemainferrer.annotations.Beta;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A cheap profile of the characters in a textual sample, which is computed once per sample and
+ * used for checking the preconditions of {@link FormatInferrer}s before running them.
+ *
+ * @author sli
+ * @see FormatInferrer#meetsPreconditions(TextProfile)
+ */
+@Beta
+@Immutable
+public final class TextProfile {
+
+  // Bits for the chars 0-9
+  private static final long DIGITS_MASK = 0x3FFL << '0';
+
+  private final int length;
+  // Bitmaps of the ASCII chars 0-63 and 64-127 in the text
+  private final long lowAsciiBits;
+  private final long highAsciiBits;
+  private final boolean ascii;
+
+  private TextProfile(int length, long lowAsciiBits, long highAsciiBits, boolean ascii) {
+    this.length = length;
+    this.lowAsciiBits = lowAsciiBits;
+    this.highAsciiBits = highAsciiBits;
+    this.ascii = ascii;
+  }
+
+  @Nonnull
+  static TextProfile of(@Nonnull String text) {
+    long lowAsciiBits = 0;
+    long highAsciiBits = 0;
+    boolean ascii = true;
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if (c < 64) {
+        lowAsciiBits |= 1L << c;
+      } else if (c < 128) {
+        highAsciiBits |= 1L << (c - 64);
+      } else {
+        ascii = false;
+      }
+    }
+    return new TextProfile(text.length(), lowAsciiBits, highAsciiBits, ascii);
+  }
+
+  /**
+   * @return The length of the text in UTF-16 code units, i.e. {@link String#length()}
+   */
+  @Nonnegative
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * @return Whether the text only contains ASCII characters
+   */
+  public boolean isAscii() {
+    return ascii;
+  }
+
+  /**
+   * @return Whether the text contains the given ASCII character. Always false for non-ASCII
+   * characters.
+   */
+  public boolean containsAscii(char c) {
+    if (c < 64) {
+      return (lowAsciiBits & 1L << c) != 0;
+    } else if (c < 128) {
+      return (highAsciiBits & 1L << (c - 64)) != 0;
+    }
+    return false;
+  }
+
+  /**
+   * @return Whether the text contains any of the ASCII digits 0-9
+   */
+  public boolean containsDigit() {
+    return (lowAsciiBits & DIGITS_MASK) != 0;
+  }
+
+}
@@ -0,0 +1,53 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.isValidEnum;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * {@link EnumExtractor} that extracts all the textual {@link JsonNode}s that are valid names of a
+ * Java {@link Enum}. Not public. Exists as a class so whether a sample is extracted can be decided
+ * one sample at a time.
+ *
+ * @author sli
+ * @see EnumExtractors#validEnum(Class)
+ */
+@Immutable
+final class ValidEnumExtractor<E extends Enum<E>> implements EnumExtractor {
+
+  private final Class<E> enumClass;
+
+  ValidEnumExtractor(@Nonnull Class<E> enumClass) {
+    this.enumClass = Objects.requireNonNull(enumClass);
+  }
+
+  @Nonnull
+  Class<E> getEnumClass() {
+    return enumClass;
+  }
+
+  /**
+   * @return Whether the given sample is a valid name of the enum class
+   */
+  boolean isEnumValue(@Nonnull JsonNode sample) {
+    return isValidEnum(enumClass, sample.textValue());
+  }
+
+  @Nonnull
+  @Override
+  public Collection<Collection<? extends JsonNode>> extractEnums(
+      @Nonnull EnumExtractorInput input) {
+    final Set<? extends JsonNode> enumNodes = input.getSamples().stream()
+        .filter(this::isEnumValue)
+        .collect(Collectors.toSet());
+    return enumNodes.isEmpty() ? Collections.emptySet() : Collections.singleton(enumNodes);
+  }
+
+}
@@ -0,0 +1,28 @@
+package com.saasquatch.jsonschemainferrer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for extracting enums from the samples at a JSON path. Not public.
+ *
+ * @author sli
+ * @see InferenceEvents
+ */
+@Name("com.saasquatch.jsonschemainferrer.EnumExtraction")
+@Label("Enum Extraction")
+@Description("Extraction of enums from the samples at a JSON path with the EnumExtractors")
+@Category("JSON Schema Inferrer")
+@StackTrace(false)
+final class EnumExtractionEvent extends jdk.jfr.Event {
+
+  @Label("Path")
+  String path;
+
+  @Label("Sample Count")
+  long sampleCount;
+
+}
@@ -0,0 +1,25 @@
+package com.saasquatch.jsonschemainferrer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for a whole inference. Not public.
+ *
+ * @author sli
+ * @see InferenceEvents
+ */
+@Name("com.saasquatch.jsonschemainferrer.Inference")
+@Label("Schema Inference")
+@Description("Inference of a JSON schema from samples")
+@Category("JSON Schema Inferrer")
+@StackTrace(false)
+final class InferenceEvent extends jdk.jfr.Event {
+
+  @Label("Sample Count")
+  long sampleCount;
+
+}
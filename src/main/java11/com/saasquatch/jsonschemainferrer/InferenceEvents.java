@@ -0,0 +1,101 @@
+package com.saasquatch.jsonschemainferrer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * JDK Flight Recorder events for the phases of inference. This is the Java 11+ version, which is
+ * packaged in the multi-release jar in place of the Java 8 version that does nothing, so the two
+ * versions must have the same methods. Events that are not enabled are never begun, and the paths
+ * are only rendered for events that are committed. Not public.
+ *
+ * @author sli
+ */
+final class InferenceEvents {
+
+  private InferenceEvents() {}
+
+  /**
+   * @return The event for a whole inference, or null if the event is not enabled
+   */
+  @Nullable
+  static Object beginInference() {
+    final InferenceEvent event = new InferenceEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  static void commitInference(@Nullable Object event, long sampleCount) {
+    if (event == null) {
+      return;
+    }
+    final InferenceEvent inferenceEvent = (InferenceEvent) event;
+    inferenceEvent.end();
+    if (inferenceEvent.shouldCommit()) {
+      inferenceEvent.sampleCount = sampleCount;
+      inferenceEvent.commit();
+    }
+  }
+
+  /**
+   * @return The event for processing the object, array or primitive samples at a path, or null if
+   * the event is not enabled
+   */
+  @Nullable
+  static Object beginProcessSamples() {
+    final ProcessSamplesEvent event = new ProcessSamplesEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  static void commitProcessSamples(@Nullable Object event, @Nonnull String type,
+      @Nonnull JsonPath path, long sampleCount) {
+    if (event == null) {
+      return;
+    }
+    final ProcessSamplesEvent processSamplesEvent = (ProcessSamplesEvent) event;
+    processSamplesEvent.end();
+    // The sample count is needed by the sample threshold setting
+    processSamplesEvent.sampleCount = sampleCount;
+    if (processSamplesEvent.shouldCommit()) {
+      processSamplesEvent.type = type;
+      processSamplesEvent.path = path.toString();
+      processSamplesEvent.commit();
+    }
+  }
+
+  /**
+   * @return The event for extracting enums from the samples at a path, or null if the event is not
+   * enabled
+   */
+  @Nullable
+  static Object beginEnumExtraction() {
+    final EnumExtractionEvent event = new EnumExtractionEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    event.begin();
+    return event;
+  }
+
+  static void commitEnumExtraction(@Nullable Object event, @Nonnull JsonPath path,
+      int sampleCount) {
+    if (event == null) {
+      return;
+    }
+    final EnumExtractionEvent enumExtractionEvent = (EnumExtractionEvent) event;
+    enumExtractionEvent.end();
+    if (enumExtractionEvent.shouldCommit()) {
+      enumExtractionEvent.path = path.toString();
+      enumExtractionEvent.sampleCount = sampleCount;
+      enumExtractionEvent.commit();
+    }
+  }
+
+}
@@ -0,0 +1,44 @@
+package com.saasquatch.jsonschemainferrer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for processing the object, array or primitive samples at a JSON path.
+ * Only the events with at least as many samples as the {@code sampleThreshold} setting are
+ * committed. Not public.
+ *
+ * @author sli
+ * @see InferenceEvents
+ */
+@Name("com.saasquatch.jsonschemainferrer.ProcessSamples")
+@Label("Process Samples")
+@Description("Processing of the object, array or primitive samples at a JSON path, including "
+    + "the nested paths")
+@Category("JSON Schema Inferrer")
+@StackTrace(false)
+final class ProcessSamplesEvent extends jdk.jfr.Event {
+
+  @Label("Type")
+  @Description("The type of the samples, which is object, array or primitive")
+  String type;
+
+  @Label("Path")
+  String path;
+
+  @Label("Sample Count")
+  long sampleCount;
+
+  @Name("sampleThreshold")
+  @Label("Sample Threshold")
+  @Description("The minimum number of samples for the event to be committed")
+  @SettingDefinition
+  boolean sampleThreshold(SampleThresholdSetting setting) {
+    return sampleCount >= setting.getThreshold();
+  }
+
+}
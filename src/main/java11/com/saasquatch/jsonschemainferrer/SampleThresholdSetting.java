@@ -0,0 +1,51 @@
+package com.saasquatch.jsonschemainferrer;
+
+import java.util.Set;
+import jdk.jfr.SettingControl;
+
+/**
+ * JDK Flight Recorder setting for the minimum number of samples for an event to be committed.
+ * When multiple recordings set different thresholds, the lowest one wins, so every recording gets
+ * at least the events it asks for. Not public.
+ *
+ * @author sli
+ * @see ProcessSamplesEvent
+ */
+final class SampleThresholdSetting extends SettingControl {
+
+  private static final long DEFAULT_THRESHOLD = 100;
+
+  private volatile long threshold = DEFAULT_THRESHOLD;
+
+  @Override
+  public String combine(Set<String> settingValues) {
+    long minThreshold = Long.MAX_VALUE;
+    for (String settingValue : settingValues) {
+      minThreshold = Math.min(minThreshold, parseThreshold(settingValue));
+    }
+    return Long.toString(minThreshold == Long.MAX_VALUE ? DEFAULT_THRESHOLD : minThreshold);
+  }
+
+  @Override
+  public void setValue(String settingValue) {
+    this.threshold = parseThreshold(settingValue);
+  }
+
+  @Override
+  public String getValue() {
+    return Long.toString(threshold);
+  }
+
+  long getThreshold() {
+    return threshold;
+  }
+
+  private static long parseThreshold(String settingValue) {
+    try {
+      return Math.max(0, Long.parseLong(settingValue.trim()));
+    } catch (NumberFormatException e) {
+      return DEFAULT_THRESHOLD;
+    }
+  }
+
+}
@@ -0,0 +1,105 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+public class DateTimeScannerTest {
+
+  // The time pattern that used to be used by BuiltInFormatInferrer.DATE_TIME
+  private static final Pattern TIME_PATTERN = Pattern.compile(
+      "^(?:[01][0-9]|2[0-3]):[0-5][0-9]:[0-5][0-9](?:\\.\\d+)?"
+          + "(?:Z|[+-](?:0[0-9]|2[0-3]):[0-5][0-9])$");
+
+  private static final List<String> SEEDS = Arrays.asList("2020-01-01T00:00:00Z",
+      "2020-02-29T23:59:59.123456789+05:30", "2019-02-29T00:00Z", "2020-01-01T00:00Z",
+      "2020-01-01", "0000-01-01", "9999-12-31T23:59:59-18:00", "2020-01-01T00:00:00+18:00",
+      "2020-01-01T00:00:00+17:59", "+10000-01-01T00:00Z", "-0001-01-01", "+2020-01-01",
+      "2020-01-01t00:00:00z", "2020-01-01T00:00:00Z[UTC]",
+      "2020-01-01T00:00:00+01:00[Europe/Paris]", "2020-01-01T00:00:00.Z",
+      "2020-01-01T00:00:00.1234567890Z", "12:00:00Z",
+      "23:59:59.5+23:59", "00:00:00-19:00", "12:00:00.123-05:00", "2020-01-01T24:00:00Z",
+      "2020-01-01T00:00:60Z", "2020-01-01T00:00:00+01", "2020-01-01T00:00:00+01:00:30",
+      "2020-13-01T00:00Z", "2020-04-31", "1900-02-29", "2000-02-29", "20200-01-01", "2020-1-01",
+      "2020-01-01 00:00:00Z", "٣٣:00:00Z", "not a date");
+
+  @Test
+  public void testBasic() {
+    assertTrue(DateTimeScanner.isDateTime("2020-01-01T00:00:00Z"));
+    assertTrue(DateTimeScanner.isDateTime("2020-01-01T00:00:00+01:00[Europe/Paris]"));
+    assertFalse(DateTimeScanner.isDateTime("2020-01-01"));
+    assertTrue(DateTimeScanner.isDate("2020-02-29"));
+    assertFalse(DateTimeScanner.isDate("2019-02-29"));
+    assertTrue(DateTimeScanner.isTime("12:00:00.123-05:00"));
+    assertFalse(DateTimeScanner.isTime("12:00:00-15:00"));
+    assertFalse(DateTimeScanner.isDateTime(""));
+    assertFalse(DateTimeScanner.isDate(""));
+    assertFalse(DateTimeScanner.isTime(""));
+  }
+
+  @Test
+  public void testSameAsJavaTime() {
+    final Random random = new Random(0);
+    final String alphabet = "0123456789-+:.TtZz[] /UCEpa٣";
+    final Set<String> strings = new LinkedHashSet<>(SEEDS);
+    for (String seed : SEEDS) {
+      for (int i = 0; i < 1000; i++) {
+        final StringBuilder sb = new StringBuilder(seed);
+        for (int j = random.nextInt(3); j >= 0; j--) {
+          final int index = sb.length() == 0 ? 0 : random.nextInt(sb.length());
+          final char c = alphabet.charAt(random.nextInt(alphabet.length()));
+          switch (random.nextInt(3)) {
+            case 0:
+              sb.insert(index, c);
+              break;
+            case 1:
+              if (sb.length() > 0) {
+                sb.setCharAt(index, c);
+              }
+              break;
+            default:
+              if (sb.length() > 0) {
+                sb.deleteCharAt(index);
+              }
+              break;
+          }
+        }
+        strings.add(sb.toString());
+      }
+    }
+    for (String s : strings) {
+      assertEquals(isZonedDateTime(s), DateTimeScanner.isDateTime(s), s);
+      assertEquals(isLocalDate(s), DateTimeScanner.isDate(s), s);
+      assertEquals(TIME_PATTERN.matcher(s).matches(), DateTimeScanner.isTime(s), s);
+    }
+  }
+
+  private static boolean isZonedDateTime(String s) {
+    try {
+      ZonedDateTime.parse(s);
+      return true;
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  private static boolean isLocalDate(String s) {
+    try {
+      LocalDate.parse(s);
+      return true;
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+}
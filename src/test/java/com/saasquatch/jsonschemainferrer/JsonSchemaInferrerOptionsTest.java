@@ -1,11 +1,14 @@
 package com.saasquatch.jsonschemainferrer;
 
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.stream;
+import static com.saasquatch.jsonschemainferrer.TestJunkDrawer.getResourceNamesUnderDir;
 import static com.saasquatch.jsonschemainferrer.TestJunkDrawer.jnf;
 import static com.saasquatch.jsonschemainferrer.TestJunkDrawer.toStringSet;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -18,16 +21,22 @@ import com.google.common.collect.ImmutableSet;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.Month;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -166,6 +175,354 @@ public class JsonSchemaInferrerOptionsTest {
     }
   }
 
+  @Test
+  public void testFormatInferrerPreconditions() {
+    final TextProfile textProfile = TextProfile.of("a@b.c 1\u00e9");
+    assertEquals(8, textProfile.getLength());
+    assertFalse(textProfile.isAscii());
+    assertTrue(textProfile.containsAscii('@'));
+    assertTrue(textProfile.containsAscii(' '));
+    assertTrue(textProfile.containsAscii('c'));
+    assertFalse(textProfile.containsAscii(':'));
+    assertFalse(textProfile.containsAscii('\u00e9'));
+    assertTrue(textProfile.containsDigit());
+    assertFalse(TextProfile.of("abc").containsDigit());
+    assertTrue(TextProfile.of("abc").isAscii());
+    final List<String> calledWith = new ArrayList<>();
+    final FormatInferrer colonFormatInferrer = new FormatInferrer() {
+      @Override
+      public String inferFormat(@Nonnull FormatInferrerInput input) {
+        calledWith.add(input.getSample().asText());
+        return "colon";
+      }
+
+      @Override
+      public boolean meetsPreconditions(@Nonnull TextProfile textProfile) {
+        return textProfile.containsAscii(':');
+      }
+    };
+    for (FormatInferrer formatInferrer : Arrays.asList(colonFormatInferrer,
+        FormatInferrers.chained(FormatInferrers.email(), colonFormatInferrer))) {
+      calledWith.clear();
+      final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder()
+          .addFormatInferrers(formatInferrer)
+          .build();
+      assertEquals("colon", inferrer.inferForSample(jnf.textNode("a:b")).path("format")
+          .textValue());
+      assertNull(inferrer.inferForSample(jnf.textNode("ab")).get("format"));
+      // Non-textual samples are not checked
+      assertEquals("colon", inferrer.inferForSample(jnf.numberNode(1)).path("format")
+          .textValue());
+      assertEquals(Arrays.asList("a:b", "1"), calledWith);
+    }
+  }
+
+  @Test
+  public void testFormatCache() {
+    assertThrows(IllegalArgumentException.class,
+        () -> JsonSchemaInferrer.newBuilder().setFormatCacheSize(-1));
+    final AtomicInteger callCount = new AtomicInteger();
+    final FormatInferrer countingFormatInferrer = input -> {
+      callCount.incrementAndGet();
+      return input.getPath().endsWith("['a']") ? "a" : null;
+    };
+    final FormatInferrer nonCacheableFormatInferrer = new FormatInferrer() {
+      @Override
+      public String inferFormat(@Nonnull FormatInferrerInput input) {
+        return countingFormatInferrer.inferFormat(input);
+      }
+
+      @Override
+      public boolean isCacheable() {
+        return false;
+      }
+    };
+    final List<JsonNode> samples = IntStream.range(0, 100)
+        .mapToObj(i -> jnf.objectNode().put("a", "foo" + i % 3).put("b", "foo" + i % 3))
+        .collect(Collectors.toList());
+    final ObjectNode expected = JsonSchemaInferrer.newBuilder()
+        .addFormatInferrers(countingFormatInferrer)
+        .build()
+        .inferForSamples(samples);
+    assertEquals(200, callCount.getAndSet(0));
+    assertEquals("a", expected.path("properties").path("a").path("format").textValue());
+    assertNull(expected.path("properties").path("b").get("format"));
+    final JsonSchemaInferrer cachingInferrer = JsonSchemaInferrer.newBuilder()
+        .addFormatInferrers(countingFormatInferrer, FormatInferrers.email())
+        .setFormatCacheSize(100)
+        .build();
+    assertEquals(expected, cachingInferrer.inferForSamples(samples));
+    // One call for each distinct pair of path and value
+    assertEquals(6, callCount.getAndSet(0));
+    assertEquals(expected, cachingInferrer.inferForSamples(samples));
+    assertEquals(0, callCount.getAndSet(0));
+    // Evictions do not change the results
+    final JsonSchemaInferrer tinyCachingInferrer = JsonSchemaInferrer.newBuilder()
+        .addFormatInferrers(countingFormatInferrer)
+        .setFormatCacheSize(1)
+        .build();
+    assertEquals(expected, tinyCachingInferrer.inferForSamples(samples));
+    assertEquals(200, callCount.getAndSet(0));
+    final JsonSchemaInferrer nonCachingInferrer = JsonSchemaInferrer.newBuilder()
+        .addFormatInferrers(nonCacheableFormatInferrer, FormatInferrers.email())
+        .setFormatCacheSize(100)
+        .build();
+    assertEquals(expected, nonCachingInferrer.inferForSamples(samples));
+    assertEquals(200, callCount.getAndSet(0));
+  }
+
+  @Test
+  public void testMaxSamplesPerPath() {
+    assertThrows(IllegalArgumentException.class,
+        () -> JsonSchemaInferrer.newBuilder().setMaxSamplesPerPath(-1));
+    final AtomicInteger callCount = new AtomicInteger();
+    final FormatInferrer countingFormatInferrer = input -> {
+      callCount.incrementAndGet();
+      return FormatInferrers.email().inferFormat(input);
+    };
+    final List<JsonNode> samples = IntStream.range(0, 1000)
+        .mapToObj(i -> {
+          final ObjectNode sample = jnf.objectNode().put("a", "foo" + i + "@example.com")
+              .put("b", i);
+          return i == 999 ? sample.put("c", true) : sample.put("c", "bar" + i);
+        })
+        .collect(Collectors.toList());
+    final ObjectNode expected = JsonSchemaInferrer.newBuilder()
+        .addFormatInferrers(countingFormatInferrer)
+        .setRequiredPolicy(RequiredPolicies.commonFields())
+        .build()
+        .inferForSamples(samples);
+    assertEquals(3000, callCount.getAndSet(0));
+    assertEquals("email", expected.path("properties").path("a").path("format").textValue());
+    final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder()
+        .addFormatInferrers(countingFormatInferrer)
+        .setRequiredPolicy(RequiredPolicies.commonFields())
+        .setMaxSamplesPerPath(10)
+        .build();
+    assertEquals(expected, inferrer.inferForSamples(samples));
+    // The boolean is not sampled, but it is the first of its type
+    assertEquals(31, callCount.getAndSet(0));
+    final SchemaAccumulator accumulator = inferrer.newAccumulator();
+    samples.forEach(accumulator::add);
+    assertEquals(expected, accumulator.toSchema());
+    assertEquals(31, callCount.getAndSet(0));
+  }
+
+  @Test
+  public void testInferenceListener() {
+    final List<String> pathStats = Collections.synchronizedList(new ArrayList<>());
+    final List<String> componentCalls = Collections.synchronizedList(new ArrayList<>());
+    final List<Long> completedSampleCounts = Collections.synchronizedList(new ArrayList<>());
+    final InferenceListener listener = new InferenceListener() {
+      @Override
+      public void onPathInferred(@Nonnull PathInferenceStats stats) {
+        assertEquals(stats.getObjectCount() + stats.getArrayCount() + stats.getPrimitiveCount()
+            + stats.getEnumValueCount(), stats.getSampleCount());
+        pathStats.add(stats.getPath() + ":" + stats.getObjectCount() + ","
+            + stats.getArrayCount() + "," + stats.getPrimitiveCount() + ","
+            + stats.getEnumValueCount() + "," + stats.getAnyOfCount());
+      }
+
+      @Override
+      public void onComponentCalled(@Nonnull InferenceComponent component, @Nonnull String path,
+          long nanos) {
+        assertTrue(nanos >= 0);
+        componentCalls.add(component + ":" + path);
+      }
+
+      @Override
+      public void onInferenceCompleted(long sampleCount, long nanos) {
+        assertTrue(nanos >= 0);
+        completedSampleCounts.add(sampleCount);
+      }
+    };
+    final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder()
+        .addFormatInferrers(FormatInferrers.email())
+        .addEnumExtractors(EnumExtractors.validEnum(DayOfWeek.class))
+        .setRequiredPolicy(RequiredPolicies.commonFields())
+        .setInferenceListener(listener)
+        .build();
+    final List<JsonNode> samples = Arrays.asList(
+        jnf.objectNode().put("a", "foo@example.com").put("b", "MONDAY"),
+        jnf.objectNode().put("a", 1).put("b", "TUESDAY").set("c", jnf.arrayNode().add(true)),
+        jnf.textNode("foo"));
+    final ObjectNode expected = JsonSchemaInferrer.newBuilder()
+        .addFormatInferrers(FormatInferrers.email())
+        .addEnumExtractors(EnumExtractors.validEnum(DayOfWeek.class))
+        .setRequiredPolicy(RequiredPolicies.commonFields())
+        .build()
+        .inferForSamples(samples);
+    assertEquals(expected, inferrer.inferForSamples(samples));
+    final Set<String> expectedPathStats = ImmutableSet.of("$:2,0,1,0,2", "$['a']:0,0,2,0,2",
+        "$['b']:0,0,0,2,1", "$['c']:0,1,0,0,1", "$['c'][*]:0,0,1,0,1");
+    assertEquals(expectedPathStats, ImmutableSet.copyOf(pathStats));
+    assertEquals(expectedPathStats.size(), pathStats.size());
+    assertEquals(Collections.singletonList(3L), completedSampleCounts);
+    assertEquals(2, componentCalls.stream().filter("FORMAT_INFERRER:$['a']"::equals).count());
+    assertEquals(5, componentCalls.stream().filter(call -> call.startsWith("ENUM_EXTRACTOR:"))
+        .count());
+    assertTrue(componentCalls.contains("GENERIC_SCHEMA_FEATURE:$"));
+    pathStats.clear();
+    componentCalls.clear();
+    completedSampleCounts.clear();
+    final SchemaAccumulator accumulator = inferrer.newAccumulator();
+    samples.forEach(accumulator::add);
+    assertEquals(expected, accumulator.toSchema());
+    assertEquals(expectedPathStats, ImmutableSet.copyOf(pathStats));
+    assertEquals(Collections.singletonList(3L), completedSampleCounts);
+    assertEquals(2, componentCalls.stream().filter("FORMAT_INFERRER:$['a']"::equals).count());
+  }
+
+  @Test
+  public void testBudget() {
+    assertThrows(IllegalArgumentException.class,
+        () -> JsonSchemaInferrer.newBuilder().setTimeout(Duration.ZERO));
+    assertThrows(IllegalArgumentException.class,
+        () -> JsonSchemaInferrer.newBuilder().setMaxNodeVisits(-1));
+    assertThrows(IllegalArgumentException.class,
+        () -> JsonSchemaInferrer.newBuilder().setMaxDepth(-1));
+    final ObjectNode sample = jnf.objectNode().put("a", 1);
+    sample.putObject("b").put("c", "foo");
+    sample.putArray("d").add(true);
+    final ObjectNode expected = JsonSchemaInferrer.newBuilder().build().inferForSample(sample);
+    {
+      final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder()
+          .setTimeout(Duration.ofHours(1))
+          .setMaxNodeVisits(100)
+          .setMaxDepth(2)
+          .build();
+      assertEquals(expected, inferrer.inferForSample(sample));
+      assertEquals(expected, inferrer.inferForSamples(Collections.singleton(sample),
+          new CancellationToken()));
+    }
+    {
+      final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder().setMaxDepth(1).build();
+      assertThrows(InferenceBudgetExceededException.class, () -> inferrer.inferForSample(sample));
+    }
+    {
+      final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder()
+          .setMaxDepth(1)
+          .setBudgetExceededAction(BudgetExceededAction.TRUNCATE)
+          .build();
+      final ObjectNode schema = inferrer.inferForSample(sample);
+      assertEquals(expected.path("properties").path("a"), schema.path("properties").path("a"));
+      assertEquals("object", schema.path("properties").path("b").path("type").textValue());
+      assertEquals("Truncated since maxDepth is exceeded", schema.path("properties").path("b")
+          .path("properties").path("c").path("$comment").textValue());
+      assertEquals("Truncated since maxDepth is exceeded",
+          schema.path("properties").path("d").path("items").path("$comment").textValue());
+    }
+    {
+      // The root and $['a'] are visited once each
+      final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder()
+          .setMaxNodeVisits(2)
+          .setBudgetExceededAction(BudgetExceededAction.TRUNCATE)
+          .build();
+      final ObjectNode schema = inferrer.inferForSample(sample);
+      assertEquals(expected.path("properties").path("a"), schema.path("properties").path("a"));
+      assertEquals("Truncated since maxNodeVisits is exceeded",
+          schema.path("properties").path("b").path("$comment").textValue());
+      assertEquals("Truncated since maxNodeVisits is exceeded",
+          schema.path("properties").path("d").path("$comment").textValue());
+    }
+    {
+      final CancellationToken cancellationToken = new CancellationToken();
+      cancellationToken.cancel();
+      assertTrue(cancellationToken.isCancelled());
+      final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder()
+          .setBudgetExceededAction(BudgetExceededAction.TRUNCATE)
+          .build();
+      assertThrows(CancellationException.class,
+          () -> inferrer.inferForSamples(Collections.singleton(sample), cancellationToken));
+    }
+  }
+
+  @Test
+  public void testShapeDeduplication() {
+    final List<JsonNode> samples = new ArrayList<>();
+    getResourceNamesUnderDir("testExamples").stream()
+        .filter(n -> n.toLowerCase(Locale.ROOT).endsWith(".json"))
+        .map("testExamples/"::concat)
+        .map(TestJunkDrawer::loadJson)
+        .forEach(samples::add);
+    for (int i = 0; i < 10; i++) {
+      final ObjectNode sample = jnf.objectNode().put("id", i).put("name", "name" + i);
+      sample.putArray("items").add(jnf.objectNode().put("a", i))
+          .add(jnf.objectNode().put("a", i % 2 == 0 ? i : i + 0.5))
+          .add(jnf.objectNode().putNull("a"));
+      if (i % 3 == 0) {
+        sample.putNull("name");
+        sample.put("extra", Double.NaN);
+      }
+      samples.add(sample);
+    }
+    final List<JsonSchemaInferrerBuilder> builders = Arrays.asList(
+        JsonSchemaInferrer.newBuilder(),
+        JsonSchemaInferrer.newBuilder()
+            .setIntegerTypePreference(IntegerTypePreference.IF_ANY)
+            .setRequiredPolicy(RequiredPolicies.nonNullCommonFields())
+            .setAdditionalPropertiesPolicy(AdditionalPropertiesPolicies.existingTypes())
+            .setObjectSizeFeatures(EnumSet.allOf(ObjectSizeFeature.class))
+            .setArrayLengthFeatures(EnumSet.allOf(ArrayLengthFeature.class)),
+        JsonSchemaInferrer.newBuilder()
+            .setRequiredPolicy(RequiredPolicies.commonFields())
+            .setExamplesPolicy(ExamplesPolicies.useFirstSamples(3))
+            .addFormatInferrers(FormatInferrers.dateTime()));
+    for (JsonSchemaInferrerBuilder builder : builders) {
+      final ObjectNode expected = builder.build().inferForSamples(samples);
+      final AtomicInteger rootSampleCount = new AtomicInteger();
+      final JsonSchemaInferrer inferrer = builder.setShapeDeduplication(true)
+          .setInferenceListener(new InferenceListener() {
+            @Override
+            public void onPathInferred(@Nonnull PathInferenceStats stats) {
+              if (stats.getPath().equals("$")) {
+                rootSampleCount.set((int) stats.getSampleCount());
+              }
+            }
+          })
+          .build();
+      assertEquals(expected, inferrer.inferForSamples(samples));
+      // The last builder has value dependent options, so nothing is deduplicated
+      if (builder == builders.get(builders.size() - 1)) {
+        assertEquals(samples.size(), rootSampleCount.get());
+      } else {
+        assertTrue(rootSampleCount.get() <= samples.size() - 6);
+      }
+    }
+    // Deduplication must not let unsupported samples through
+    final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder()
+        .setShapeDeduplication(true)
+        .build();
+    final List<JsonNode> pojoSamples = Arrays.asList(jnf.objectNode().putNull("a"),
+        jnf.objectNode().set("a", jnf.pojoNode(null)));
+    assertThrows(IllegalArgumentException.class, () -> inferrer.inferForSamples(pojoSamples));
+    assertThrows(IllegalArgumentException.class,
+        () -> inferrer.inferForSamples(Arrays.asList(jnf.pojoNode(null), jnf.nullNode())));
+    assertThrows(IllegalArgumentException.class, () -> inferrer.inferForSamples(
+        Arrays.asList(jnf.pojoNode(new Object()), jnf.pojoNode(new Object()))));
+  }
+
+  @Test
+  public void testSchemaInterning() {
+    final ObjectNode sample = jnf.objectNode();
+    sample.putObject("a").put("x", 1).put("y", "foo");
+    sample.putObject("b").put("x", 2).put("y", "bar");
+    sample.putArray("c").addObject().put("x", 3).put("y", "baz");
+    final JsonSchemaInferrerBuilder builder = JsonSchemaInferrer.newBuilder()
+        .setRequiredPolicy(RequiredPolicies.commonFields());
+    final ObjectNode expected = builder.build().inferForSample(sample);
+    assertNotSame(expected.at("/properties/a"), expected.at("/properties/b"));
+    final JsonSchemaInferrer inferrer = builder.setSchemaInterning(true).build();
+    final SchemaAccumulator accumulator = inferrer.newAccumulator().add(sample);
+    for (ObjectNode schema : Arrays.asList(inferrer.inferForSample(sample),
+        accumulator.toSchema())) {
+      assertEquals(expected, schema);
+      assertEquals(expected.toString(), schema.toString());
+      assertSame(schema.at("/properties/a"), schema.at("/properties/b"));
+      assertSame(schema.at("/properties/a"), schema.at("/properties/c/items"));
+    }
+  }
+
   @Test
   public void testAdditionalProperties() {
     {
@@ -239,6 +596,35 @@ public class JsonSchemaInferrerOptionsTest {
     }
   }
 
+  @Test
+  public void testIntegerTypeCriterionCalls() {
+    final AtomicInteger calls = new AtomicInteger();
+    final IntegerTypeCriterion criterion = input -> {
+      calls.incrementAndGet();
+      return input.getSample().isIntegralNumber();
+    };
+    final List<JsonNode> samples = ImmutableList.of(jnf.numberNode(1), jnf.numberNode(1.5),
+        jnf.numberNode(2), jnf.textNode("foo"));
+    final Object[][] cases = {
+        {IntegerTypePreference.IF_ALL, ImmutableSet.of("number", "string"), 2},
+        {IntegerTypePreference.IF_ANY, ImmutableSet.of("integer", "number", "string"), 3},
+        {IntegerTypePreference.NEVER, ImmutableSet.of("number", "string"), 0},
+    };
+    for (Object[] c : cases) {
+      final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder()
+          .setIntegerTypeCriterion(criterion)
+          .setIntegerTypePreference((IntegerTypePreference) c[0])
+          .build();
+      calls.set(0);
+      assertEquals(c[1], toStringSet(inferrer.inferForSamples(samples).path("type")),
+          c[0].toString());
+      assertEquals(c[2], calls.get(), c[0].toString());
+      final SchemaAccumulator accumulator = inferrer.newAccumulator();
+      samples.forEach(accumulator::add);
+      assertEquals(inferrer.inferForSamples(samples), accumulator.toSchema());
+    }
+  }
+
   @Test
   public void testIntegerConfigCombo() {
     {
@@ -432,7 +818,8 @@ public class JsonSchemaInferrerOptionsTest {
     {
       final JsonNode examples =
           ExamplesPolicies.useFirstSamples(1).getExamples(new GenericSchemaFeatureInput(
-              jnf.objectNode(), Collections.emptyList(), "string", SpecVersion.DRAFT_07, "$"));
+              jnf.objectNode(), Collections.emptyList(), "string", SpecVersion.DRAFT_07,
+              JsonPath.ROOT));
       assertNull(examples);
     }
     {
@@ -686,6 +1073,18 @@ public class JsonSchemaInferrerOptionsTest {
       assertEquals(0, schema.path("minLength").intValue());
       assertEquals(6, schema.path("maxLength").intValue());
     }
+    {
+      final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder()
+          .setStringLengthFeatures(EnumSet.allOf(StringLengthFeature.class)).build();
+      final List<JsonNode> unicodeSamples = ImmutableList.of(jnf.textNode("caf\u00e9"),
+          jnf.textNode("\ud83d\ude00"), jnf.textNode("a\ud83d\ude00b\u4e2d"));
+      final ObjectNode schema = inferrer.inferForSamples(unicodeSamples);
+      assertEquals(1, schema.path("minLength").intValue());
+      assertEquals(4, schema.path("maxLength").intValue());
+      final SchemaAccumulator accumulator = inferrer.newAccumulator();
+      unicodeSamples.forEach(accumulator::add);
+      assertEquals(schema, accumulator.toSchema());
+    }
     for (JsonNode shouldBeText : Arrays.asList(jnf.numberNode(Double.NaN),
         jnf.numberNode(Double.NEGATIVE_INFINITY), jnf.numberNode(Double.POSITIVE_INFINITY),
         jnf.numberNode(Float.NaN), jnf.numberNode(Float.NEGATIVE_INFINITY),
@@ -753,4 +1152,55 @@ public class JsonSchemaInferrerOptionsTest {
     assertEquals("bar", schema.path("foo").textValue());
   }
 
+  @Test
+  public void testGenericFeatureApplicableTypes() {
+    final GenericSchemaFeature stringFeature = new GenericSchemaFeature() {
+      @Override
+      public ObjectNode getFeatureResult(@Nonnull GenericSchemaFeatureInput input) {
+        assertEquals("string", input.getType());
+        return jnf.objectNode().put("foo", "bar");
+      }
+
+      @Override
+      public Set<String> getApplicableTypes() {
+        return Collections.singleton("string");
+      }
+    };
+    final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder()
+        .addGenericSchemaFeatures(stringFeature)
+        .setStringLengthFeatures(EnumSet.allOf(StringLengthFeature.class))
+        .build();
+    final ObjectNode schema = inferrer.inferForSample(jnf.objectNode().put("a", "12")
+        .put("b", 1).set("c", jnf.arrayNode().add("123").add(jnf.nullNode())));
+    assertNull(schema.get("foo"));
+    assertEquals("bar", schema.path("properties").path("a").path("foo").textValue());
+    assertEquals(2, schema.path("properties").path("a").path("maxLength").intValue());
+    assertNull(schema.path("properties").path("b").get("foo"));
+    final JsonNode itemAnyOf = schema.path("properties").path("c").path("items").path("anyOf");
+    assertEquals(2, itemAnyOf.size());
+    for (JsonNode anyOf : itemAnyOf) {
+      assertEquals(anyOf.path("type").textValue().equals("string"), anyOf.has("foo"));
+    }
+    final Set<String> nonContainerTypes =
+        ImmutableSet.of("string", "number", "integer", "boolean", "null");
+    assertEquals(nonContainerTypes, DefaultPolicies.useFirstSamples().getApplicableTypes());
+    assertEquals(nonContainerTypes, ExamplesPolicies.useFirstSamples(2).getApplicableTypes());
+    final Set<String> seenTypes = new HashSet<>();
+    final ObjectNode policySchema = JsonSchemaInferrer.newBuilder()
+        .setDefaultPolicy(input -> {
+          seenTypes.add(input.getType());
+          return input.getSamples().iterator().next();
+        })
+        .setExamplesPolicy(input -> {
+          seenTypes.add(input.getType());
+          return null;
+        })
+        .build()
+        .inferForSample(schema);
+    assertTrue(nonContainerTypes.containsAll(seenTypes));
+    assertFalse(seenTypes.isEmpty());
+    assertNull(policySchema.get("default"));
+    assertFalse(policySchema.path("properties").path("properties").has("default"));
+  }
+
 }
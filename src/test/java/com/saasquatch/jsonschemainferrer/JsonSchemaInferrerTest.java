@@ -2,17 +2,31 @@ package com.saasquatch.jsonschemainferrer;
 
 import static com.saasquatch.jsonschemainferrer.TestJunkDrawer.jnf;
 import static com.saasquatch.jsonschemainferrer.TestJunkDrawer.loadJson;
+import static com.saasquatch.jsonschemainferrer.TestJunkDrawer.mapper;
 import static com.saasquatch.jsonschemainferrer.TestJunkDrawer.toStringSet;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.POJONode;
 import com.google.common.collect.ImmutableSet;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.jupiter.api.Test;
 
 public class JsonSchemaInferrerTest {
@@ -100,4 +114,113 @@ public class JsonSchemaInferrerTest {
     }
   }
 
+  @Test
+  public void testWriteSchema() throws IOException {
+    final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder()
+        .setSpecVersion(SpecVersion.DRAFT_07)
+        .setExamplesPolicy(ExamplesPolicies.useFirstSamples(5))
+        .setDefaultPolicy(DefaultPolicies.useFirstSamples())
+        .setNumberRangeFeatures(EnumSet.allOf(NumberRangeFeature.class))
+        .setRequiredPolicy(RequiredPolicies.nonNullCommonFields())
+        .build();
+    final List<JsonNode> samples = Arrays.asList(loadJson("simple.json"),
+        loadJson("advanced.json"), jnf.binaryNode(new byte[]{1, 2, 3}), jnf.numberNode(1.5f),
+        jnf.numberNode(new BigDecimal("1e-3")), jnf.numberNode(BigInteger.TEN.pow(20)),
+        jnf.numberNode((short) 1), jnf.textNode("\u00e9\"\n"), null);
+    final ObjectNode schema = inferrer.inferForSamples(samples);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    inferrer.writeSchemaForSamples(samples, out);
+    assertEquals(mapper.writeValueAsString(schema), out.toString("UTF-8"));
+    final StringWriter writer = new StringWriter();
+    try (JsonGenerator generator = mapper.getFactory().createGenerator(writer)) {
+      final SchemaAccumulator accumulator = inferrer.newAccumulator();
+      samples.forEach(accumulator::add);
+      accumulator.writeSchemaTo(generator);
+    }
+    assertEquals(mapper.writeValueAsString(schema), writer.toString());
+  }
+
+  @Test
+  public void testWriteSchemaStreamsProperties() throws IOException {
+    final List<String> log = new ArrayList<>();
+    final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder()
+        .setRequiredPolicy(RequiredPolicies.commonFields())
+        .setAdditionalPropertiesPolicy(AdditionalPropertiesPolicies.notAllowed())
+        .setInferenceListener(new InferenceListener() {
+          @Override
+          public void onPathInferred(PathInferenceStats stats) {
+            log.add("infer " + stats.getPath());
+          }
+        })
+        .build();
+    final List<JsonNode> samples = Arrays.asList(mapper.readTree("{\"a\":1,\"b\":{\"c\":\"x\"}}"),
+        mapper.readTree("{\"a\":2.5,\"d\":true}"));
+    final String expected = mapper.writeValueAsString(inferrer.inferForSamples(samples));
+    final SchemaAccumulator accumulator = inferrer.newAccumulator();
+    samples.forEach(accumulator::add);
+    for (boolean useAccumulator : new boolean[]{false, true}) {
+      log.clear();
+      final StringWriter writer = new StringWriter();
+      try (JsonGenerator generator = new JsonGeneratorDelegate(
+          mapper.getFactory().createGenerator(writer)) {
+        @Override
+        public void writeFieldName(String name) throws IOException {
+          log.add("write " + name);
+          super.writeFieldName(name);
+        }
+      }) {
+        if (useAccumulator) {
+          accumulator.writeSchemaTo(generator);
+        } else {
+          inferrer.writeSchemaForSamples(samples, generator);
+        }
+      }
+      assertEquals(expected, writer.toString());
+      // Each property is only inferred once the previous ones are written
+      final int writeA = log.indexOf("write a");
+      final int inferB = log.indexOf("infer " + JsonPath.ROOT.appendObject("b"));
+      final int writeB = log.indexOf("write b");
+      final int inferD = log.indexOf("infer " + JsonPath.ROOT.appendObject("d"));
+      assertTrue(log.indexOf("infer " + JsonPath.ROOT) < writeA);
+      assertTrue(writeA < inferB && writeB < inferD, log::toString);
+    }
+  }
+
+  @Test
+  public void testParallel() {
+    final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+    try {
+      final ObjectNode wide = jnf.objectNode();
+      for (int i = 0; i < 100; i++) {
+        wide.put("field" + i, i % 3 == 0 ? jnf.textNode("foo") : jnf.numberNode(i));
+      }
+      final List<JsonNode> samples = new ArrayList<>();
+      for (int i = 0; i < 2000; i++) {
+        samples.add(i % 2 == 0 ? wide : loadJson(i % 4 == 1 ? "simple.json" : "advanced.json"));
+      }
+      samples.add(jnf.textNode("MONDAY"));
+      samples.add(jnf.numberNode(1.5));
+      for (boolean extraFeatures : Arrays.asList(true, false)) {
+        final JsonSchemaInferrerBuilder builder = JsonSchemaInferrer.newBuilder();
+        if (extraFeatures) {
+          builder.setSpecVersion(SpecVersion.DRAFT_07)
+              .setExamplesPolicy(ExamplesPolicies.useFirstSamples(5))
+              .setNumberRangeFeatures(EnumSet.allOf(NumberRangeFeature.class))
+              .setMultipleOfPolicy(MultipleOfPolicies.gcd())
+              .setRequiredPolicy(RequiredPolicies.nonNullCommonFields())
+              .addEnumExtractors(EnumExtractors.validEnum(DayOfWeek.class));
+        }
+        final JsonSchemaInferrer sequential = builder.build();
+        final JsonSchemaInferrer parallel = builder.setForkJoinPool(forkJoinPool).build();
+        assertEquals(sequential.inferForSamples(samples), parallel.inferForSamples(samples));
+        assertEquals(sequential.inferForSamples(samples.subList(0, 10)),
+            parallel.inferForSamples(samples.subList(0, 10)));
+        assertThrows(IllegalArgumentException.class,
+            () -> parallel.inferForSample(jnf.objectNode().put("foo", 1).putPOJO("bar", "")));
+      }
+    } finally {
+      forkJoinPool.shutdown();
+    }
+  }
+
 }
@@ -4,6 +4,7 @@ import static com.saasquatch.jsonschemainferrer.JunkDrawer.escapeSingleQuoteStri
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.getBase64Length;
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.getCommonFieldNames;
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.getSerializedTextLength;
+import static com.saasquatch.jsonschemainferrer.JunkDrawer.groupValuesByFieldName;
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.isNull;
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.isValidEnum;
 import static com.saasquatch.jsonschemainferrer.JunkDrawer.isValidEnumIgnoreCase;
@@ -12,8 +13,10 @@ import static com.saasquatch.jsonschemainferrer.JunkDrawer.stringColToArrayDisti
 import static com.saasquatch.jsonschemainferrer.TestJunkDrawer.jnf;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.BigIntegerNode;
 import com.fasterxml.jackson.databind.node.BinaryNode;
@@ -25,16 +28,32 @@ import com.fasterxml.jackson.databind.node.TextNode;
 import com.fasterxml.jackson.databind.node.ValueNode;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 
 public class JunkDrawerTest {
 
+  @Test
+  public void testGroupValuesByFieldName() {
+    final ObjectNode o1 = jnf.objectNode().put("b", 1).put("a", "x");
+    final ObjectNode o2 = jnf.objectNode().put("c", true).put("b", 2);
+    o2.putNull("a");
+    final Map<String, List<JsonNode>> grouped = groupValuesByFieldName(Arrays.asList(o1, o2,
+        jnf.objectNode()));
+    assertEquals(Arrays.asList("b", "a", "c"), new ArrayList<>(grouped.keySet()));
+    assertEquals(Arrays.asList(jnf.numberNode(1), jnf.numberNode(2)), grouped.get("b"));
+    assertEquals(Arrays.asList(jnf.textNode("x"), jnf.nullNode()), grouped.get("a"));
+    assertEquals(Collections.singletonList(jnf.booleanNode(true)), grouped.get("c"));
+    assertTrue(groupValuesByFieldName(Collections.emptyList()).isEmpty());
+  }
+
   @Test
   public void testStringColToArrayDistinct() {
     final List<String> stringCol = Arrays.asList("a", "a", "b");
@@ -142,6 +161,16 @@ public class JunkDrawerTest {
     // a\bb\fc\nd\re\tf\'"\\\r\n\n\rg
     assertEquals(" a\\bb\\fc\\nd\\re\\tf\\'\"\\\\\\r\\n\\n\\rg",
         escapeSingleQuoteString(" a\bb\fc\nd\re\tf'\"\\\r\n\n\rg"));
+    final String noEscape = "foo\"bar";
+    assertSame(noEscape, escapeSingleQuoteString(noEscape));
+  }
+
+  @Test
+  public void testJsonPath() {
+    assertEquals("$", JsonPath.ROOT.toString());
+    final JsonPath path = JsonPath.ROOT.appendObject("a'b").appendArrayStar().appendObject("c");
+    assertEquals("$['a\\'b'][*]['c']", path.toString());
+    assertSame(path.toString(), path.toString());
   }
 
 }
@@ -0,0 +1,84 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.NumbersSummary.compareNumbers;
+import static com.saasquatch.jsonschemainferrer.TestJunkDrawer.jnf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class NumbersSummaryTest {
+
+  private static final List<JsonNode> NUMBERS = Collections.unmodifiableList(Arrays.asList(
+      jnf.numberNode(0), jnf.numberNode(0.0), jnf.numberNode(-0.0), jnf.numberNode(0.0f),
+      jnf.numberNode(1), jnf.numberNode(-1L), jnf.numberNode((short) 3), jnf.numberNode(1.5f),
+      jnf.numberNode(0.1), jnf.numberNode(0.1f), jnf.numberNode(12.0), jnf.numberNode(-18.0f),
+      jnf.numberNode(1L << 53), jnf.numberNode((1L << 53) + 1), jnf.numberNode(0x1p53),
+      jnf.numberNode(0x1p60), jnf.numberNode(1L << 60), jnf.numberNode(Long.MAX_VALUE),
+      jnf.numberNode(Long.MIN_VALUE), jnf.numberNode(-Double.MAX_VALUE),
+      jnf.numberNode(Double.MIN_VALUE), jnf.numberNode(BigInteger.TEN.pow(30)),
+      jnf.numberNode(BigInteger.valueOf(6)), jnf.numberNode(new BigDecimal("6.0")),
+      DecimalNode.valueOf(new BigDecimal("-24.000")), jnf.numberNode(new BigDecimal("0.1")),
+      jnf.numberNode(new BigDecimal("1E+20"))));
+
+  @Test
+  public void testCompareNumbers() {
+    for (JsonNode a : NUMBERS) {
+      for (JsonNode b : NUMBERS) {
+        assertEquals(Integer.signum(a.decimalValue().compareTo(b.decimalValue())),
+            Integer.signum(compareNumbers(a, b)), a + " " + b);
+      }
+    }
+  }
+
+  @Test
+  public void testSummary() {
+    final NumbersSummary emptySummary = new NumbersSummary(true);
+    emptySummary.add(jnf.textNode("1"));
+    emptySummary.add(jnf.numberNode(Double.NaN));
+    assertNull(emptySummary.getMinNumber());
+    assertNull(emptySummary.getMaxNumber());
+    assertNull(emptySummary.getIntegersGcd());
+    final NumbersSummary singleSummary = new NumbersSummary(true);
+    singleSummary.add(jnf.numberNode(-6));
+    assertEquals(BigInteger.valueOf(-6), singleSummary.getIntegersGcd());
+    final Random random = new Random(0);
+    for (int i = 0; i < 1000; i++) {
+      final List<JsonNode> samples = new ArrayList<>();
+      for (int j = random.nextInt(6); j >= 0; j--) {
+        samples.add(NUMBERS.get(random.nextInt(NUMBERS.size())));
+      }
+      final NumbersSummary summary = new NumbersSummary(true);
+      samples.forEach(summary::add);
+      final Comparator<JsonNode> comparator = Comparator.comparing(JsonNode::decimalValue);
+      assertSame(samples.stream().min(comparator).get(), summary.getMinNumber());
+      assertSame(samples.stream().max(comparator).get(), summary.getMaxNumber());
+      final BigInteger expectedGcd =
+          samples.stream().allMatch(JunkDrawer::isMathematicalIntegerNode)
+              ? samples.stream().map(JsonNode::bigIntegerValue).reduce(BigInteger::gcd).get()
+              : null;
+      assertEquals(expectedGcd, summary.getIntegersGcd(), samples.toString());
+      // Merging in halves is the same as adding one at a time
+      final NumbersSummary merged = new NumbersSummary(true);
+      final NumbersSummary tail = new NumbersSummary(true);
+      samples.subList(0, samples.size() / 2).forEach(merged::add);
+      samples.subList(samples.size() / 2, samples.size()).forEach(tail::add);
+      merged.merge(tail);
+      assertSame(summary.getMinNumber(), merged.getMinNumber());
+      assertSame(summary.getMaxNumber(), merged.getMaxNumber());
+      assertEquals(expectedGcd, merged.getIntegersGcd());
+    }
+  }
+
+}
@@ -0,0 +1,276 @@
+package com.saasquatch.jsonschemainferrer;
+
+import static com.saasquatch.jsonschemainferrer.TestJunkDrawer.getResourceNamesUnderDir;
+import static com.saasquatch.jsonschemainferrer.TestJunkDrawer.jnf;
+import static com.saasquatch.jsonschemainferrer.TestJunkDrawer.loadJson;
+import static com.saasquatch.jsonschemainferrer.TestJunkDrawer.mapper;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+
+public class SchemaAccumulatorTest {
+
+  @Test
+  public void testBasic() {
+    final SchemaAccumulator accumulator = JsonSchemaInferrer.newBuilder().build()
+        .newAccumulator();
+    assertThrows(IllegalStateException.class, accumulator::toSchema);
+    assertThrows(IllegalArgumentException.class, () -> accumulator.add(jnf.pojoNode("")));
+    assertThrows(IllegalArgumentException.class,
+        () -> JsonSchemaInferrer.newBuilder().build().newAccumulator()
+            .add(jnf.arrayNode().add(jnf.pojoNode(""))));
+    final SchemaAccumulator nullAccumulator = JsonSchemaInferrer.newBuilder().build()
+        .newAccumulator().add(null).add(jnf.missingNode());
+    assertEquals(2, nullAccumulator.getSampleCount());
+    assertEquals("null", nullAccumulator.toSchema().path("type").textValue());
+  }
+
+  @Test
+  public void testIncremental() {
+    final JsonSchemaInferrer inferrer = JsonSchemaInferrer.newBuilder()
+        .setNumberRangeFeatures(EnumSet.allOf(NumberRangeFeature.class))
+        .build();
+    final SchemaAccumulator accumulator = inferrer.newAccumulator();
+    accumulator.add(jnf.numberNode(1)).add(jnf.numberNode(3));
+    final ObjectNode schema1 = accumulator.toSchema();
+    assertEquals("integer", schema1.path("type").textValue());
+    assertEquals(3, schema1.path("maximum").intValue());
+    accumulator.add(jnf.numberNode(new BigDecimal("4.5")));
+    final ObjectNode schema2 = accumulator.toSchema();
+    assertEquals("number", schema2.path("type").textValue());
+    assertEquals(new BigDecimal("4.5"), schema2.path("maximum").decimalValue());
+    // Earlier results are not affected
+    assertEquals(3, schema1.path("maximum").intValue());
+    assertEquals(inferrer.inferForSamples(Arrays.asList(jnf.numberNode(1), jnf.numberNode(3),
+        jnf.numberNode(new BigDecimal("4.5")))), schema2);
+  }
+
+  @Test
+  public void testSameAsInferForSamples() {
+    final List<JsonNode> sampleJsons = getTestExamples();
+    for (JsonSchemaInferrer inferrer : getTestInferrers()) {
+      for (JsonNode sampleJson : sampleJsons) {
+        assertSameAsInferForSamples(inferrer, Collections.singletonList(sampleJson));
+      }
+      assertSameAsInferForSamples(inferrer, sampleJsons);
+      assertSameAsInferForSamples(inferrer, Arrays.asList(jnf.numberNode(12),
+          jnf.numberNode(18L), jnf.numberNode(new BigDecimal("6.0")), jnf.numberNode(Double.NaN),
+          jnf.textNode("MONDAY"), jnf.textNode("2020-01-01T00:00:00Z"), jnf.nullNode(),
+          jnf.arrayNode().add(1).add("JANUARY"), loadJson("simple.json")));
+    }
+  }
+
+  @Test
+  public void testStreaming() throws IOException {
+    final List<JsonNode> sampleJsons = ImmutableList.<JsonNode>builder()
+        .addAll(getTestExamples())
+        .add(jnf.numberNode(1.5), jnf.textNode("TUESDAY"), jnf.nullNode(), jnf.booleanNode(true))
+        .build();
+    final StringBuilder ndJson = new StringBuilder();
+    for (JsonNode sampleJson : sampleJsons) {
+      ndJson.append(mapper.writeValueAsString(sampleJson)).append('\n');
+    }
+    for (JsonSchemaInferrer inferrer : getTestInferrers()) {
+      final ObjectNode expected = inferrer.inferForSamples(sampleJsons);
+      {
+        final SchemaAccumulator accumulator = inferrer.newAccumulator()
+            .addAllFrom(new StringReader(ndJson.toString()));
+        assertEquals(sampleJsons.size(), accumulator.getSampleCount());
+        assertEquals(expected, accumulator.toSchema());
+      }
+      {
+        final SchemaAccumulator accumulator = inferrer.newAccumulator().addAllFrom(
+            new ByteArrayInputStream(ndJson.toString().getBytes(StandardCharsets.UTF_8)));
+        assertEquals(expected, accumulator.toSchema());
+      }
+      try (JsonParser parser = mapper.createParser(ndJson.toString())) {
+        final SchemaAccumulator accumulator = inferrer.newAccumulator();
+        for (JsonNode sampleJson : sampleJsons) {
+          accumulator.addFrom(parser);
+          if (sampleJson.isContainerNode()) {
+            assertTrue(parser.currentToken().isStructEnd());
+          }
+          parser.nextToken();
+        }
+        assertThrows(EOFException.class, () -> accumulator.addFrom(parser));
+        assertEquals(expected, accumulator.toSchema());
+      }
+    }
+  }
+
+  @Test
+  public void testJsonLines() throws IOException {
+    final List<JsonNode> sampleJsons = getTestExamples();
+    final StringBuilder ndJson = new StringBuilder();
+    for (JsonNode sampleJson : sampleJsons) {
+      ndJson.append(mapper.writeValueAsString(sampleJson)).append('\n');
+    }
+    final byte[] bytes = ndJson.toString().getBytes(StandardCharsets.UTF_8);
+    final Path file = Files.createTempFile("samples", ".jsonl");
+    final Path gzipFile = Files.createTempFile("samples", ".jsonl.gz");
+    final Path emptyFile = Files.createTempFile("empty", ".jsonl");
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      Files.write(file, bytes);
+      try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipFile))) {
+        out.write(bytes);
+      }
+      final List<JsonSchemaInferrer> inferrers = new ArrayList<>(getTestInferrers());
+      inferrers.add(JsonSchemaInferrer.newBuilder().setForkJoinPool(pool).build());
+      for (JsonSchemaInferrer inferrer : inferrers) {
+        final ObjectNode expected = inferrer.inferForSamples(sampleJsons);
+        assertEquals(expected, inferrer.inferForJsonLines(file));
+        assertEquals(expected, inferrer.inferForJsonLines(gzipFile));
+        // Tiny chunks to split the file on every line
+        for (long chunkSize : new long[]{1, 100, bytes.length - 1, bytes.length}) {
+          try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertEquals(expected, inferrer.inferForJsonLines(channel, chunkSize));
+          }
+        }
+        assertThrows(IllegalArgumentException.class, () -> inferrer.inferForJsonLines(emptyFile));
+      }
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        final List<Long> offsets = JsonLinesFiles.getChunkOffsets(channel, 1);
+        assertEquals(sampleJsons.size() + 1, offsets.size());
+        for (long offset : offsets.subList(1, offsets.size())) {
+          assertEquals('\n', bytes[(int) offset - 1]);
+        }
+      }
+    } finally {
+      pool.shutdown();
+      Files.delete(file);
+      Files.delete(gzipFile);
+      Files.delete(emptyFile);
+    }
+  }
+
+  @Test
+  public void testMerge() throws IOException {
+    final List<JsonNode> sampleJsons = getTestExamples();
+    for (JsonSchemaInferrer inferrer : getTestInferrers()) {
+      final ObjectNode expected = inferrer.inferForSamples(sampleJsons);
+      final List<SchemaAccumulator> accumulators = new ArrayList<>();
+      for (List<JsonNode> partition : Lists.partition(sampleJsons, 5)) {
+        final SchemaAccumulator accumulator = inferrer.newAccumulator();
+        partition.forEach(accumulator::add);
+        // Round trip through the binary encoding
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        accumulator.writeTo(out);
+        accumulators.add(inferrer.readAccumulator(new ByteArrayInputStream(out.toByteArray())));
+      }
+      final SchemaAccumulator merged = inferrer.newAccumulator();
+      accumulators.forEach(merged::merge);
+      assertEquals(sampleJsons.size(), merged.getSampleCount());
+      assertEquals(expected, merged.toSchema());
+      // Merging in a different grouping
+      final SchemaAccumulator tail = inferrer.newAccumulator();
+      accumulators.subList(1, accumulators.size()).forEach(tail::merge);
+      assertEquals(expected,
+          inferrer.newAccumulator().merge(accumulators.get(0)).merge(tail).toSchema());
+      // The merged accumulators are not modified
+      assertEquals(inferrer.inferForSamples(sampleJsons.subList(0, 5)),
+          accumulators.get(0).toSchema());
+      assertThrows(IllegalArgumentException.class, () -> merged.merge(merged));
+    }
+    final JsonSchemaInferrer inferrer1 = JsonSchemaInferrer.newBuilder().build();
+    final JsonSchemaInferrer inferrer2 = JsonSchemaInferrer.newBuilder()
+        .setExamplesPolicy(ExamplesPolicies.useFirstSamples(10))
+        .build();
+    assertThrows(IllegalArgumentException.class,
+        () -> inferrer1.newAccumulator().merge(inferrer2.newAccumulator()));
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    inferrer1.newAccumulator().add(jnf.textNode("foo")).writeTo(out);
+    assertEquals(jnf.textNode("string"), JsonSchemaInferrer.newBuilder().build()
+        .readAccumulator(new ByteArrayInputStream(out.toByteArray())).toSchema().path("type"));
+    assertThrows(IllegalArgumentException.class,
+        () -> inferrer2.readAccumulator(new ByteArrayInputStream(out.toByteArray())));
+    assertThrows(IOException.class,
+        () -> inferrer1.readAccumulator(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5})));
+  }
+
+  private static void assertSameAsInferForSamples(JsonSchemaInferrer inferrer,
+      Collection<JsonNode> samples) {
+    final SchemaAccumulator accumulator = inferrer.newAccumulator();
+    samples.forEach(accumulator::add);
+    assertEquals(samples.size(), accumulator.getSampleCount());
+    assertEquals(inferrer.inferForSamples(samples), accumulator.toSchema());
+  }
+
+  private static List<JsonNode> getTestExamples() {
+    return getResourceNamesUnderDir("testExamples").stream()
+        .filter(n -> n.toLowerCase(Locale.ROOT).endsWith(".json"))
+        .map("testExamples/"::concat)
+        .map(TestJunkDrawer::loadJson)
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  private static List<JsonSchemaInferrer> getTestInferrers() {
+    return Arrays.asList(
+        JsonSchemaInferrer.newBuilder().build(),
+        JsonSchemaInferrer.newBuilder()
+            .setSpecVersion(SpecVersion.DRAFT_07)
+            .setIntegerTypePreference(IntegerTypePreference.IF_ANY)
+            .addFormatInferrers(FormatInferrers.dateTime(), FormatInferrers.ip())
+            .setArrayLengthFeatures(EnumSet.allOf(ArrayLengthFeature.class))
+            .setObjectSizeFeatures(EnumSet.allOf(ObjectSizeFeature.class))
+            .setStringLengthFeatures(EnumSet.allOf(StringLengthFeature.class))
+            .setNumberRangeFeatures(EnumSet.allOf(NumberRangeFeature.class))
+            .setExamplesPolicy(ExamplesPolicies.useFirstSamples(3))
+            .setDefaultPolicy(DefaultPolicies.useLastSamples())
+            .setMultipleOfPolicy(MultipleOfPolicies.gcd())
+            .addEnumExtractors(EnumExtractors.validEnum(Month.class),
+                EnumExtractors.validEnum(DayOfWeek.class))
+            .setAdditionalPropertiesPolicy(AdditionalPropertiesPolicies.existingTypes())
+            .setRequiredPolicy(RequiredPolicies.nonNullCommonFields())
+            .build(),
+        JsonSchemaInferrer.newBuilder()
+            .setSpecVersion(SpecVersion.DRAFT_2020_12)
+            .setIntegerTypeCriterion(IntegerTypeCriteria.mathematicalInteger())
+            .setNumberRangeFeatures(EnumSet.allOf(NumberRangeFeature.class))
+            .setMultipleOfPolicy(MultipleOfPolicies.gcd())
+            .setExamplesPolicy(ExamplesPolicies.useFirstSamples(10))
+            .setDefaultPolicy(DefaultPolicies.useFirstSamples())
+            .setRequiredPolicy(RequiredPolicies.commonFields())
+            .build(),
+        // Custom components that need the samples themselves
+        JsonSchemaInferrer.newBuilder()
+            .addGenericSchemaFeatures(input -> {
+              final ObjectNode result = jnf.objectNode();
+              result.put("$comment", input.getSamples().size());
+              return result;
+            })
+            .addEnumExtractors(input -> Collections.emptySet())
+            .build());
+  }
+
+}